@@ -1,15 +1,21 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingChangesDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIncome;
 import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
 import ru.practicum.shareit.misc.Marker;
+import ru.practicum.shareit.user.SharerId;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
 import java.util.List;
 
 
@@ -17,52 +23,88 @@ import java.util.List;
 @Validated
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
-@Slf4j
 public class BookingController {
 
     private final BookingService service;
+    private final IdempotencyStore idempotency;
 
     @PostMapping
     @Validated({Marker.OnCreate.class})
-    public BookingDtoOutcome addBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+    public BookingDtoOutcome addBooking(@SharerId long userId,
+                                        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String key,
                                         @RequestBody @Valid BookingDtoIncome bookingDto) {
-        log.debug("Запрос на создание нового бронирования на вещь {} от пользователя {}",
-                bookingDto.getItemId(),
-                userId);
-
-        return service.add(bookingDto, userId);
+        return idempotency.execute(key, "bookings", userId, bookingDto, BookingDtoOutcome.class,
+                () -> service.add(bookingDto, userId));
     }
 
     @PatchMapping("/{bookingId}")
-    public BookingDtoOutcome approveBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+    public BookingDtoOutcome approveBooking(@SharerId long userId,
                                             @PathVariable long bookingId,
                                             @RequestParam boolean approved) {
-        log.debug("Запрос на изменение статуса бронирования {}", bookingId);
         return service.approve(userId, bookingId, approved);
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDtoOutcome getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                        @PathVariable long bookingId) {
-        log.debug("Заарос на просмотр бронирования {} от пользователя {}", bookingId, userId);
+    public BookingDtoOutcome getBooking(@SharerId long userId,
+                                        @PathVariable long bookingId,
+                                        WebRequest request) {
+        if (request.checkNotModified(service.getETag(userId, bookingId))) {
+            return null;
+        }
+
         return service.get(userId, bookingId);
     }
 
     @GetMapping
-    public List<BookingDtoOutcome> getBookingsForUser(@RequestHeader("X-Sharer-User-Id") long userId,
+    public List<BookingDtoOutcome> getBookingsForUser(@SharerId long userId,
                                                       @RequestParam(defaultValue = "ALL") String state,
                                                       @RequestParam(defaultValue = "0") @Min(0) int from,
                                                       @RequestParam(defaultValue = "100") @Min(1) int size) {
-        log.debug("Запрос на получение всех бронирований пользователя {}", userId);
         return service.getForUser(userId, state, from, size);
     }
 
+    @GetMapping(params = "ids")
+    public List<BookingDtoOutcome> getBookingsByIds(@SharerId long userId,
+                                                    @RequestParam @Size(min = 1, max = 100) List<Long> ids) {
+        return service.getByIds(userId, ids);
+    }
+
     @GetMapping("/owner")
-    public List<BookingDtoOutcome> getBookingsForOwner(@RequestHeader("X-Sharer-User-Id") long userId,
+    public List<BookingDtoOutcome> getBookingsForOwner(@SharerId long userId,
                                                        @RequestParam(defaultValue = "ALL") String state,
                                                        @RequestParam(defaultValue = "0") @Min(0) int from,
                                                        @RequestParam(defaultValue = "100") @Min(1) int size) {
-        log.debug("Запрос на получение всех бронирований владельцем забронированных вещей. ID владельца - {}", userId);
         return service.getForOwner(userId, state, from, size);
     }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@SharerId long userId,
+                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return service.subscribe(userId, parseEventId(lastEventId));
+    }
+
+    @GetMapping("/changes")
+    public BookingChangesDto getChangesForUser(@SharerId long userId,
+                                               @RequestParam(defaultValue = "0") @Min(0) long since,
+                                               @RequestParam(defaultValue = "100") @Min(1) int size) {
+        return service.getChangesForUser(userId, since, size);
+    }
+
+    @GetMapping("/owner/changes")
+    public BookingChangesDto getChangesForOwner(@SharerId long userId,
+                                                @RequestParam(defaultValue = "0") @Min(0) long since,
+                                                @RequestParam(defaultValue = "100") @Min(1) int size) {
+        return service.getChangesForOwner(userId, since, size);
+    }
+
+    private static Long parseEventId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingChangesDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIncome;
 import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
@@ -7,6 +8,9 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class BookingMapper {
 
     public static Booking toBooking(BookingDtoIncome bookingDto, User user, Item item) {
@@ -15,6 +19,9 @@ public class BookingMapper {
                 bookingDto.getEnd(),
                 item,
                 user,
+                null,
+                null,
+                null,
                 null);
     }
 
@@ -27,6 +34,18 @@ public class BookingMapper {
                 booking.getStatus());
     }
 
+    public static BookingChangesDto toBookingChangesDto(List<Booking> bookings, long since) {
+        long lastSequence = bookings.stream()
+                .mapToLong(Booking::getChangeSeq)
+                .max()
+                .orElse(since);
+
+        return new BookingChangesDto(lastSequence,
+                bookings.stream()
+                        .map(BookingMapper::toBookingDto)
+                        .collect(Collectors.toList()));
+    }
+
     public static BookingDtoShort toBookingDtoShort(Booking booking) {
         return new BookingDtoShort(booking.getId(),
                 booking.getStart(),
@@ -5,34 +5,53 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingChangesDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIncome;
 import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventPublisher;
+import ru.practicum.shareit.booking.event.BookingSubscription;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.error.exception.BadRequestException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.misc.ETags;
+import ru.practicum.shareit.user.UserIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.BookingMapper.toBooking;
+import static ru.practicum.shareit.booking.BookingMapper.toBookingChangesDto;
 import static ru.practicum.shareit.booking.BookingMapper.toBookingDto;
 import static ru.practicum.shareit.booking.model.Status.*;
 
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class BookingService {
 
     public final BookingRepository bookingRepository;
     public final ItemRepository itemRepository;
     public final UserRepository userRepository;
+    public final UserIndex userIndex;
+    public final BookingEventPublisher bookingEvents;
 
+    @Transactional
     public BookingDtoOutcome add(BookingDtoIncome bookingDto, long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь по ID " + userId + " не найден!"));
@@ -51,27 +70,27 @@ public class BookingService {
         }
         Booking booking = toBooking(bookingDto, user, item);
         booking.setStatus(WAITING);
+        booking.setChangeSeq(bookingRepository.nextChangeSeq());
+        booking.setChangedAt(LocalDateTime.now());
         Booking savedBooking = bookingRepository.save(booking);
+        bookingEvents.publish(savedBooking);
 
         return toBookingDto(savedBooking);
     }
 
+    @Transactional
     public BookingDtoOutcome approve(long userId, long bookingId, boolean approved) {
+        Status status = approved ? APPROVED : REJECTED;
+        int updated = bookingRepository.updateStatus(bookingId, userId, WAITING, status);
+        if (updated == 0) {
+            throw approveFailure(userId, bookingId);
+        }
+        bookingRepository.updateChangeSeq(bookingId, bookingRepository.nextChangeSeq(), LocalDateTime.now());
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронирование по ID " + bookingId + " не найдено!"));
-        if (booking.getItem().getOwnerId() != userId) {
-            throw new NotFoundException("Это не ваша вещь, вы не можете менять статус бронирования");
-        }
-        if (!booking.getStatus().equals(WAITING)) {
-            throw new BadRequestException("Вы уже изменили статус бронирования");
-        }
-        if (approved) {
-            booking.setStatus(APPROVED);
-        } else {
-            booking.setStatus(REJECTED);
-        }
+        bookingEvents.publish(booking);
 
-        return toBookingDto(bookingRepository.save(booking));
+        return toBookingDto(booking);
     }
 
     public BookingDtoOutcome get(long userId, long bookingId) {
@@ -84,10 +103,34 @@ public class BookingService {
         return toBookingDto(booking);
     }
 
+    public List<BookingDtoOutcome> getByIds(long userId, List<Long> bookingIds) {
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemAndBookerByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        return bookingIds.stream()
+                .distinct()
+                .map(id -> {
+                    Booking booking = bookings.get(id);
+                    if (booking == null) {
+                        throw new NotFoundException("Бронирование по ID " + id + " не найдено!");
+                    }
+                    if (userId != booking.getBooker().getId() && userId != booking.getItem().getOwnerId()) {
+                        throw new NotFoundException("Бронирование к вам не относится.");
+                    }
+                    return toBookingDto(booking);
+                })
+                .collect(Collectors.toList());
+    }
+
+    public String getETag(long userId, long bookingId) {
+        return bookingRepository.findVersionById(bookingId)
+                .filter(v -> v.getBookerId() == userId || v.getOwnerId() == userId)
+                .map(v -> ETags.of(v.getVersion(), v.getItemVersion(), v.getBookerVersion()))
+                .orElse(null);
+    }
+
     public List<BookingDtoOutcome> getForUser(long userId, String state, int from, int size) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("Пользователь по ID " + userId + " не найден");
-        }
+        userIndex.require(userId);
         Page<Booking> bookings;
         Pageable page = PageRequest.of(from / size, size);
         switch (state) {
@@ -125,9 +168,7 @@ public class BookingService {
     }
 
     public List<BookingDtoOutcome> getForOwner(long userId, String state, int from, int size) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("Пользователь по ID " + userId + " не найден");
-        }
+        userIndex.require(userId);
         Page<Booking> bookings;
         Pageable page = PageRequest.of(from / size, size);
         switch (state) {
@@ -158,6 +199,43 @@ public class BookingService {
                 .collect(Collectors.toList());
     }
 
+    public BookingChangesDto getChangesForUser(long userId, long since, int size) {
+        userIndex.require(userId);
+        List<Booking> changes = bookingRepository
+                .findChangesForBooker(userId, since, committedChangeSeq(), PageRequest.of(0, size));
+
+        return toBookingChangesDto(changes, since);
+    }
+
+    public BookingChangesDto getChangesForOwner(long userId, long since, int size) {
+        userIndex.require(userId);
+        List<Booking> changes = bookingRepository
+                .findChangesForOwner(userId, since, committedChangeSeq(), PageRequest.of(0, size));
+
+        return toBookingChangesDto(changes, since);
+    }
+
+    public SseEmitter subscribe(long userId, Long lastEventId) {
+        userIndex.require(userId);
+        BookingSubscription subscription = bookingEvents.subscribe(userId);
+        try {
+            if (lastEventId == null) {
+                subscription.replay(List.of());
+            } else {
+                replay(subscription, userId, lastEventId);
+            }
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+
+        return subscription.getEmitter();
+    }
+
+    public List<BookingDtoShort> getReservedForItem(long itemId, LocalDateTime from, LocalDateTime to) {
+        return bookingRepository.findOverlapping(itemId, from, to, List.of(WAITING, APPROVED));
+    }
+
     public BookingDtoShort getNextBookingForItem(long itemId) {
         return bookingRepository.findFirstByItemIdAndStartAfterOrderByStartAsc(itemId, LocalDateTime.now())
                 .map(BookingMapper::toBookingDtoShort)
@@ -169,4 +247,54 @@ public class BookingService {
                 .map(BookingMapper::toBookingDtoShort)
                 .orElse(null);
     }
+
+    public Map<Long, BookingDtoShort> getNextBookingsForItems(Collection<Long> itemIds) {
+        return toBookingsByItem(bookingRepository.findNextByItemIds(itemIds, LocalDateTime.now()));
+    }
+
+    public Map<Long, BookingDtoShort> getLastBookingsForItems(Collection<Long> itemIds) {
+        return toBookingsByItem(bookingRepository.findLastByItemIds(itemIds, LocalDateTime.now()));
+    }
+
+    private long committedChangeSeq() {
+        Long recent = bookingRepository
+                .findFirstChangeSeqSince(LocalDateTime.now().minus(bookingEvents.getCommitLag()));
+
+        return recent == null ? Long.MAX_VALUE : recent;
+    }
+
+    private RuntimeException approveFailure(long userId, long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId).orElse(null);
+        if (booking == null) {
+            return new NotFoundException("Бронирование по ID " + bookingId + " не найдено!");
+        }
+        if (booking.getItem().getOwnerId() != userId) {
+            return new NotFoundException("Это не ваша вещь, вы не можете менять статус бронирования");
+        }
+
+        return new BadRequestException("Вы уже изменили статус бронирования");
+    }
+
+    private static Map<Long, BookingDtoShort> toBookingsByItem(List<Booking> bookings) {
+        return bookings.stream()
+                .sorted(Comparator.comparing(Booking::getId))
+                .collect(Collectors.toMap(b -> b.getItem().getId(), BookingMapper::toBookingDtoShort, (a, b) -> a));
+    }
+
+    private void replay(BookingSubscription subscription, long userId, long since) {
+        int limit = bookingEvents.getReplaySize();
+        Pageable page = PageRequest.of(0, limit + 1);
+        long before = committedChangeSeq();
+        List<Booking> changes = new ArrayList<>(bookingRepository.findChangesForBooker(userId, since, before, page));
+        changes.addAll(bookingRepository.findChangesForOwner(userId, since, before, page));
+        if (changes.size() > limit) {
+            subscription.resync();
+            return;
+        }
+
+        subscription.replay(changes.stream()
+                .sorted(Comparator.comparing(Booking::getChangeSeq))
+                .map(b -> new BookingEvent(b.getChangeSeq(), toBookingDto(b)))
+                .collect(Collectors.toList()));
+    }
 }
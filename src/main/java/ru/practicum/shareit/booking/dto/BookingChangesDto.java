@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BookingChangesDto {
+
+    private Long lastSequence;
+    private List<BookingDtoOutcome> bookings;
+}
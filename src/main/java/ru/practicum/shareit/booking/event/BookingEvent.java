@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
+
+@Value
+public class BookingEvent {
+
+    long sequence;
+    BookingDtoOutcome booking;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.events")
+public class BookingEventProperties {
+
+    private int queueCapacity = 64;
+    private int replaySize = 100;
+    private int senderThreads = 4;
+    private Duration heartbeat = Duration.ofSeconds(15);
+    private Duration timeout = Duration.ofMinutes(30);
+    private Duration reconnectTime = Duration.ofSeconds(3);
+    private Duration commitLag = Duration.ofSeconds(5);
+}
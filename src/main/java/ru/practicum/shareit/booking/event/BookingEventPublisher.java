@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static ru.practicum.shareit.booking.BookingMapper.toBookingDto;
+
+@Slf4j
+@Component
+@EnableConfigurationProperties(BookingEventProperties.class)
+public class BookingEventPublisher {
+
+    private final ConcurrentMap<Long, Set<BookingSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final BookingEventProperties properties;
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeat;
+
+    public BookingEventPublisher(BookingEventProperties properties) {
+        this.properties = properties;
+        this.sender = Executors.newFixedThreadPool(properties.getSenderThreads(), threadFactory("booking-events-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(threadFactory("booking-events-heartbeat-"));
+        long period = properties.getHeartbeat().toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public BookingSubscription subscribe(long userId) {
+        return subscribe(userId, new SseEmitter(properties.getTimeout().toMillis()));
+    }
+
+    BookingSubscription subscribe(long userId, SseEmitter emitter) {
+        BookingSubscription subscription = new BookingSubscription(userId,
+                emitter,
+                properties.getQueueCapacity(),
+                sender,
+                this::remove);
+        subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        subscription.hello(properties.getReconnectTime().toMillis());
+        log.debug("Пользователь {} подписался на события бронирований", userId);
+
+        return subscription;
+    }
+
+    public int getReplaySize() {
+        return properties.getReplaySize();
+    }
+
+    public Duration getCommitLag() {
+        return properties.getCommitLag();
+    }
+
+    public void publish(Booking booking) {
+        BookingEvent event = new BookingEvent(booking.getChangeSeq(), toBookingDto(booking));
+        Set<Long> recipients = Stream.of(booking.getBooker().getId(), booking.getItem().getOwnerId())
+                .collect(Collectors.toSet());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fanOut(recipients, event);
+                }
+            });
+        } else {
+            fanOut(recipients, event);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscriptions.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toList())
+                .forEach(BookingSubscription::close);
+        sender.shutdown();
+    }
+
+    int countSubscriptions(long userId) {
+        return subscriptions.getOrDefault(userId, Set.of()).size();
+    }
+
+    private void fanOut(Set<Long> recipients, BookingEvent event) {
+        for (Long userId : recipients) {
+            for (BookingSubscription subscription : subscriptions.getOrDefault(userId, Set.of())) {
+                subscription.publish(event);
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        subscriptions.values().forEach(set -> set.forEach(BookingSubscription::heartbeat));
+    }
+
+    private void remove(BookingSubscription subscription) {
+        subscriptions.computeIfPresent(subscription.getUserId(), (id, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
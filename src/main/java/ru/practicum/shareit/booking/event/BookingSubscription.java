@@ -0,0 +1,149 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+@Slf4j
+public class BookingSubscription {
+
+    @Getter
+    private final long userId;
+    @Getter
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+    private final Executor executor;
+    private final Consumer<BookingSubscription> onClose;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final List<BookingEvent> pending = new ArrayList<>();
+    private boolean replaying = true;
+
+    BookingSubscription(long userId,
+                        SseEmitter emitter,
+                        int capacity,
+                        Executor executor,
+                        Consumer<BookingSubscription> onClose) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = executor;
+        this.onClose = onClose;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(e -> close());
+    }
+
+    public synchronized void replay(List<BookingEvent> events) {
+        Set<Long> replayed = new HashSet<>();
+        for (BookingEvent event : events) {
+            replayed.add(event.getSequence());
+            deliver(event);
+        }
+        finishReplay(replayed);
+    }
+
+    public synchronized void resync() {
+        enqueue(SseEmitter.event().name("resync").data(""));
+        finishReplay(Set.of());
+    }
+
+    synchronized void publish(BookingEvent event) {
+        if (!replaying) {
+            deliver(event);
+            return;
+        }
+        if (pending.size() >= capacity) {
+            log.debug("Подписчик {} не успевает получать события бронирований, соединение закрыто", userId);
+            close();
+            return;
+        }
+        pending.add(event);
+    }
+
+    void heartbeat() {
+        enqueue(SseEmitter.event().comment("heartbeat"));
+    }
+
+    void hello(long reconnectTime) {
+        enqueue(SseEmitter.event().reconnectTime(reconnectTime).comment("connected"));
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            queue.clear();
+            onClose.accept(this);
+            emitter.complete();
+        }
+    }
+
+    private void finishReplay(Set<Long> replayed) {
+        replaying = false;
+        for (BookingEvent event : pending) {
+            if (!replayed.contains(event.getSequence())) {
+                deliver(event);
+            }
+        }
+        pending.clear();
+    }
+
+    private void deliver(BookingEvent event) {
+        enqueue(SseEmitter.event()
+                .id(String.valueOf(event.getSequence()))
+                .name("booking")
+                .data(event.getBooking(), MediaType.APPLICATION_JSON));
+    }
+
+    private void enqueue(SseEmitter.SseEventBuilder event) {
+        if (closed.get()) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            log.debug("Очередь событий подписчика {} переполнена, соединение закрыто", userId);
+            close();
+            return;
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!closed.get() && (event = queue.poll()) != null) {
+                emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Не удалось отправить событие подписчику {}: {}", userId, e.getMessage());
+            close();
+        } finally {
+            draining.set(false);
+        }
+        if (!closed.get() && !queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+}
@@ -31,4 +31,10 @@ public class Booking {
     private User booker;
     @Enumerated(value = EnumType.ORDINAL)
     private Status status;
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+    @Version
+    private Long version;
 }
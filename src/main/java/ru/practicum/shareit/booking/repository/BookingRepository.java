@@ -3,11 +3,15 @@ package ru.practicum.shareit.booking.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -25,10 +29,58 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                                                           LocalDateTime time2,
                                                                           Pageable page);
 
+    @Query("SELECT b FROM Booking b WHERE b.booker.id = ?1 AND b.changeSeq > ?2 AND b.changeSeq < ?3 " +
+            "ORDER BY b.changeSeq")
+    List<Booking> findChangesForBooker(Long bookerId, Long since, Long before, Pageable page);
+
+    @Query(value = "SELECT b.* FROM bookings b JOIN items i ON i.id = b.item_id " +
+            "WHERE i.owner_id = ?1 AND b.change_seq > ?2 AND b.change_seq < ?3 ORDER BY b.change_seq",
+            nativeQuery = true)
+    List<Booking> findChangesForOwner(Long ownerId, Long since, Long before, Pageable page);
+
+    @Query("SELECT MIN(b.changeSeq) FROM Booking b WHERE b.changedAt >= ?1")
+    Long findFirstChangeSeqSince(LocalDateTime changedAt);
+
+    @Query(value = "SELECT nextval('booking_change_seq')", nativeQuery = true)
+    Long nextChangeSeq();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ?4, b.version = b.version + 1 " +
+            "WHERE b.id = ?1 AND b.status = ?3 " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.ownerId = ?2)")
+    int updateStatus(Long bookingId, Long ownerId, Status expected, Status status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.changeSeq = ?2, b.changedAt = ?3 WHERE b.id = ?1")
+    int updateChangeSeq(Long bookingId, Long changeSeq, LocalDateTime changedAt);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.id IN ?1")
+    List<Booking> findAllWithItemAndBookerByIdIn(Collection<Long> ids);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingDtoShort(b.id, b.start, b.end, b.booker.id, b.status) " +
+            "FROM Booking b WHERE b.item.id = ?1 AND b.end > ?2 AND b.start < ?3 AND b.status IN ?4 " +
+            "ORDER BY b.start")
+    List<BookingDtoShort> findOverlapping(Long itemId, LocalDateTime from, LocalDateTime to,
+                                          Collection<Status> statuses);
+
     Optional<Booking> findFirstByItemIdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime start);
 
     Optional<Booking> findFirstByItemIdAndEndBeforeOrderByEndDesc(Long itemId, LocalDateTime end);
 
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN ?1 AND b.start > ?2 AND b.start = " +
+            "(SELECT MIN(n.start) FROM Booking n WHERE n.item.id = b.item.id AND n.start > ?2)")
+    List<Booking> findNextByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN ?1 AND b.end < ?2 AND b.end = " +
+            "(SELECT MAX(l.end) FROM Booking l WHERE l.item.id = b.item.id AND l.end < ?2)")
+    List<Booking> findLastByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query(value = "SELECT b.version AS version, b.booker_id AS bookerId, i.owner_id AS ownerId, " +
+            "i.version AS itemVersion, u.version AS bookerVersion " +
+            "FROM bookings b JOIN items i ON i.id = b.item_id JOIN users u ON u.id = b.booker_id " +
+            "WHERE b.id = ?1", nativeQuery = true)
+    Optional<BookingVersion> findVersionById(Long bookingId);
+
     @Query(value = "SELECT * FROM bookings WHERE item_id IN " +
             "(SELECT id FROM items WHERE owner_id = ?1) ORDER BY id DESC", nativeQuery = true)
     Page<Booking> findAllByOwner(Long ownerId, Pageable page);
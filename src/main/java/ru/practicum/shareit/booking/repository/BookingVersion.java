@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.repository;
+
+public interface BookingVersion {
+
+    Long getVersion();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+}
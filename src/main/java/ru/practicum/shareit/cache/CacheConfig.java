@@ -0,0 +1,52 @@
+package ru.practicum.shareit.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(NearCacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(InvalidationTransport.class)
+    public InvalidationTransport inMemoryInvalidationTransport() {
+        return new InMemoryInvalidationTransport();
+    }
+
+    @Bean
+    public NearCacheManager cacheManager(NearCacheProperties properties, InvalidationTransport transport) {
+        return new NearCacheManager(properties, transport);
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "shareit.cache.transport", havingValue = "redis")
+    @Import(RedisAutoConfiguration.class)
+    static class RedisTransportConfig {
+
+        @Bean
+        public RedisMessageListenerContainer invalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+
+            return container;
+        }
+
+        @Bean
+        public InvalidationTransport redisInvalidationTransport(StringRedisTemplate template,
+                                                                RedisMessageListenerContainer container,
+                                                                NearCacheProperties properties) {
+            return new RedisInvalidationTransport(template, container, new ChannelTopic(properties.getChannel()));
+        }
+    }
+}
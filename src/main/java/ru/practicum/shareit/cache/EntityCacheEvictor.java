@@ -0,0 +1,95 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class EntityCacheEvictor {
+
+    private static final String ENTITY_PREFIX = "entity:";
+    private static final String QUERIES = "entity-queries";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final EntityManagerFactory entityManagerFactory;
+    private final InvalidationTransport transport;
+    private final Map<String, Class<?>> entities;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory, InvalidationTransport transport) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.transport = transport;
+        this.entities = entityManagerFactory.getMetamodel().getEntities().stream()
+                .collect(Collectors.toMap(e -> e.getJavaType().getName(), EntityType::getJavaType));
+        transport.subscribe(this::onMessage);
+    }
+
+    public void evictOnOtherNodes(Class<?> entity, long id) {
+        afterCommit(new InvalidationMessage(nodeId, ENTITY_PREFIX + entity.getName(), String.valueOf(id)), false);
+    }
+
+    public void evictAllOnOtherNodes(Class<?> entity) {
+        afterCommit(new InvalidationMessage(nodeId, ENTITY_PREFIX + entity.getName(), null), false);
+    }
+
+    public void evictAllCascaded(Class<?> entity) {
+        afterCommit(new InvalidationMessage(nodeId, ENTITY_PREFIX + entity.getName(), null), true);
+    }
+
+    public void evictQueriesOnOtherNodes() {
+        afterCommit(new InvalidationMessage(nodeId, QUERIES, null), false);
+    }
+
+    private void afterCommit(InvalidationMessage message, boolean local) {
+        Runnable action = () -> {
+            if (local) {
+                apply(message);
+            }
+            transport.publish(message);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void onMessage(InvalidationMessage message) {
+        if (!nodeId.equals(message.getOrigin())) {
+            apply(message);
+        }
+    }
+
+    private void apply(InvalidationMessage message) {
+        if (QUERIES.equals(message.getCacheName())) {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+            return;
+        }
+        if (!message.getCacheName().startsWith(ENTITY_PREFIX)) {
+            return;
+        }
+        Class<?> entity = entities.get(message.getCacheName().substring(ENTITY_PREFIX.length()));
+        if (entity == null) {
+            return;
+        }
+        log.debug("Инвалидация {} {} в кэше второго уровня", entity.getSimpleName(), message.getKey());
+        if (message.isClear()) {
+            entityManagerFactory.getCache().evict(entity);
+        } else {
+            entityManagerFactory.getCache().evict(entity, Long.valueOf(message.getKey()));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Value;
+
+@Value
+public class InvalidationMessage {
+
+    private static final String SEPARATOR = "|";
+
+    String origin;
+    String cacheName;
+    String key;
+
+    public boolean isClear() {
+        return key == null;
+    }
+
+    public String encode() {
+        return origin + SEPARATOR + cacheName + SEPARATOR + (key == null ? "" : key);
+    }
+
+    public static InvalidationMessage decode(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Некорректное сообщение инвалидации: " + payload);
+        }
+
+        return new InvalidationMessage(parts[0], parts[1], parts[2].isEmpty() ? null : parts[2]);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.cache;
+
+import java.util.function.Consumer;
+
+public interface InvalidationTransport {
+
+    void publish(InvalidationMessage message);
+
+    void subscribe(Consumer<InvalidationMessage> listener);
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+@RequiredArgsConstructor
+public class NearCache implements Cache {
+
+    private final Cache local;
+    private final String origin;
+    private final InvalidationTransport transport;
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return local.get(toKey(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return local.get(toKey(key), type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return local.get(toKey(key), valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(toKey(key), value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return local.putIfAbsent(toKey(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = toKey(key);
+        local.evict(localKey);
+        transport.publish(new InvalidationMessage(origin, getName(), localKey));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = toKey(key);
+        boolean present = local.evictIfPresent(localKey);
+        transport.publish(new InvalidationMessage(origin, getName(), localKey));
+
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        transport.publish(new InvalidationMessage(origin, getName(), null));
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = local.invalidate();
+        transport.publish(new InvalidationMessage(origin, getName(), null));
+
+        return present;
+    }
+
+    void onRemoteInvalidation(InvalidationMessage message) {
+        if (message.isClear()) {
+            local.clear();
+        } else {
+            local.evict(message.getKey());
+        }
+    }
+
+    private static String toKey(Object key) {
+        return String.valueOf(key);
+    }
+}
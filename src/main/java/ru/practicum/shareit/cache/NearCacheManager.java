@@ -0,0 +1,65 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Slf4j
+public class NearCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, NearCache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Cache> transactionalCaches = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString();
+    private final NearCacheProperties properties;
+    private final InvalidationTransport transport;
+
+    public NearCacheManager(NearCacheProperties properties, InvalidationTransport transport) {
+        this.properties = properties;
+        this.transport = transport;
+        transport.subscribe(this::onMessage);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return transactionalCaches.computeIfAbsent(name,
+                n -> new TransactionAwareCacheDecorator(caches.computeIfAbsent(n, this::createCache)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private NearCache createCache(String name) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite());
+
+        return new NearCache(new CaffeineCache(name, builder.build(), false), nodeId, transport);
+    }
+
+    private void onMessage(InvalidationMessage message) {
+        if (nodeId.equals(message.getOrigin())) {
+            return;
+        }
+        NearCache cache = caches.get(message.getCacheName());
+        if (cache != null) {
+            log.debug("Инвалидация {} в кэше {} по сообщению узла {}",
+                    message.getKey(), message.getCacheName(), message.getOrigin());
+            cache.onRemoteInvalidation(message);
+        }
+    }
+}
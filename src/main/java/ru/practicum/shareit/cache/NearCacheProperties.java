@@ -0,0 +1,21 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.cache")
+public class NearCacheProperties {
+
+    private Transport transport = Transport.LOCAL;
+    private long maximumSize = 10_000;
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+    private String channel = "shareit:cache-invalidation";
+
+    public enum Transport {
+        LOCAL,
+        REDIS
+    }
+}
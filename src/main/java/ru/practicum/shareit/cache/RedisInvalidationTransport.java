@@ -0,0 +1,37 @@
+package ru.practicum.shareit.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+@Slf4j
+@RequiredArgsConstructor
+public class RedisInvalidationTransport implements InvalidationTransport {
+
+    private final StringRedisTemplate template;
+    private final RedisMessageListenerContainer container;
+    private final ChannelTopic topic;
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        template.convertAndSend(topic.getTopic(), message.encode());
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> listener) {
+        container.addMessageListener((Message message, byte[] pattern) -> {
+            String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                listener.accept(InvalidationMessage.decode(payload));
+            } catch (IllegalArgumentException e) {
+                log.warn("Пропущено сообщение инвалидации {}", payload);
+            }
+        }, topic);
+    }
+}
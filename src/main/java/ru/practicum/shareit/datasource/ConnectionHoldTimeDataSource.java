@@ -0,0 +1,46 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import ru.practicum.shareit.logging.ConnectionHoldTimer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    public ConnectionHoldTimeDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    private static Connection track(Connection connection) {
+        long acquired = System.nanoTime();
+        boolean[] closed = new boolean[1];
+
+        return (Connection) Proxy.newProxyInstance(ConnectionHoldTimeDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && !closed[0]) {
+                        closed[0] = true;
+                        ConnectionHoldTimer.record(System.nanoTime() - acquired);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.datasource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+public class CurrentUser {
+
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private CurrentUser() {
+    }
+
+    public static Long get() {
+        State state = STATE.get();
+
+        return state == null ? null : state.userId;
+    }
+
+    public static void set(Long userId) {
+        STATE.set(new State(userId));
+    }
+
+    public static boolean wroteWithin(Duration window, Function<Long, Instant> lastWrites) {
+        State state = STATE.get();
+        if (state == null || state.userId == null) {
+            return false;
+        }
+        if (!state.loaded) {
+            state.lastWrite = lastWrites.apply(state.userId);
+            state.loaded = true;
+        }
+        Instant now = Instant.now();
+
+        return state.lastWrite != null
+                && state.lastWrite.isAfter(now.minus(window))
+                && state.lastWrite.isBefore(now.plus(window));
+    }
+
+    public static Instant markWrite() {
+        State state = STATE.get();
+        Instant now = Instant.now();
+        if (state != null) {
+            state.lastWrite = now;
+            state.loaded = true;
+        }
+
+        return now;
+    }
+
+    public static void clear() {
+        STATE.remove();
+    }
+
+    private static class State {
+
+        private final Long userId;
+        private Instant lastWrite;
+        private boolean loaded;
+
+        private State(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
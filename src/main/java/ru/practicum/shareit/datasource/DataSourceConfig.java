@@ -0,0 +1,127 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourcePostProcessor() {
+        return new DataSourcePostProcessor();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(LastWriteStore.class)
+    public LastWriteStore inMemoryLastWriteStore(
+            @Value("${shareit.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        return new InMemoryLastWriteStore(window);
+    }
+
+    @Bean
+    public MeterBinder connectionPoolMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+                .filter(LazyConnectionDataSource.class::isInstance)
+                .flatMap(dataSource -> ((LazyConnectionDataSource) dataSource).getPools().stream())
+                .filter(HikariDataSource.class::isInstance)
+                .map(HikariDataSource.class::cast)
+                .filter(pool -> pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null)
+                .forEach(pool -> {
+                    try {
+                        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                    } catch (IllegalStateException e) {
+                        log.warn("Метрики пула {} недоступны: пул уже запущен", pool.getPoolName());
+                    }
+                });
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "shareit.cache.transport", havingValue = "redis")
+    static class RedisLastWriteStoreConfig {
+
+        @Bean
+        public LastWriteStore redisLastWriteStore(
+                StringRedisTemplate template,
+                @Value("${shareit.datasource.replica.read-your-writes-window:5s}") Duration window) {
+            return new RedisLastWriteStore(template, window);
+        }
+    }
+
+    private static class DataSourcePostProcessor implements BeanPostProcessor, EnvironmentAware, BeanFactoryAware {
+
+        private Environment environment;
+        private BeanFactory beanFactory;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) {
+            this.beanFactory = beanFactory;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource) || bean instanceof DelegatingDataSource) {
+                return bean;
+            }
+            DataSource primary = (DataSource) bean;
+            boolean autoCommit = !(primary instanceof HikariDataSource) || ((HikariDataSource) primary).isAutoCommit();
+            Binder binder = Binder.get(environment);
+            ReplicaProperties replica = binder.bind("shareit.datasource.replica", ReplicaProperties.class)
+                    .orElseGet(ReplicaProperties::new);
+            if (replica.getUrl() == null) {
+                return new LazyConnectionDataSource(new ConnectionHoldTimeDataSource(primary),
+                        List.of(primary),
+                        autoCommit);
+            }
+            DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword());
+            if (replica.getDriverClassName() != null) {
+                builder.driverClassName(replica.getDriverClassName());
+            }
+            HikariDataSource replicaPool = builder.build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replicaPool));
+            replicaPool.setPoolName("replica");
+            binder.bind("shareit.datasource.replica.hikari", Bindable.ofInstance(replicaPool));
+            replicaPool.setReadOnly(true);
+            replicaPool.setAutoCommit(autoCommit);
+            DataSource routing = new ReplicaRoutingDataSource(primary,
+                    replicaPool,
+                    replica.getReadYourWritesWindow(),
+                    beanFactory.getBeanProvider(LastWriteStore.class)::getObject);
+
+            return new LazyConnectionDataSource(new ConnectionHoldTimeDataSource(routing),
+                    List.of(primary, replicaPool),
+                    autoCommit);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public class InMemoryLastWriteStore implements LastWriteStore {
+
+    private final Cache<Long, Instant> lastWrites;
+
+    public InMemoryLastWriteStore(Duration window) {
+        this.lastWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public Instant get(long userId) {
+        return lastWrites.getIfPresent(userId);
+    }
+
+    @Override
+    public void put(long userId, Instant written) {
+        lastWrites.put(userId, written);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.datasource;
+
+import java.time.Instant;
+
+public interface LastWriteStore {
+
+    Instant get(long userId);
+
+    void put(long userId, Instant written);
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+public class LazyConnectionDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final List<DataSource> pools;
+
+    public LazyConnectionDataSource(DataSource target, List<DataSource> pools, boolean defaultAutoCommit) {
+        setTargetDataSource(target);
+        setDefaultAutoCommit(defaultAutoCommit);
+        setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        afterPropertiesSet();
+        this.pools = pools;
+    }
+
+    public List<DataSource> getPools() {
+        return pools;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable) {
+                ((AutoCloseable) pool).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Slf4j
+@RequiredArgsConstructor
+public class RedisLastWriteStore implements LastWriteStore {
+
+    private static final String PREFIX = "shareit:last-write:";
+
+    private final StringRedisTemplate template;
+    private final Duration window;
+
+    @Override
+    public Instant get(long userId) {
+        String value;
+        try {
+            value = template.opsForValue().get(PREFIX + userId);
+        } catch (DataAccessException e) {
+            log.warn("Не удалось прочитать время последней записи пользователя {}: {}", userId, e.getMessage());
+            return null;
+        }
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void put(long userId, Instant written) {
+        template.opsForValue().set(PREFIX + userId, String.valueOf(written.toEpochMilli()), window);
+    }
+}
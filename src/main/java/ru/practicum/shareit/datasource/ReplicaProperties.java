@@ -0,0 +1,15 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class ReplicaProperties {
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
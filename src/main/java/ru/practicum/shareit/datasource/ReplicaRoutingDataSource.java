@@ -0,0 +1,56 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Duration readYourWritesWindow;
+    private final Supplier<LastWriteStore> lastWrites;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    DataSource replica,
+                                    Duration readYourWritesWindow,
+                                    Supplier<LastWriteStore> lastWrites) {
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.lastWrites = lastWrites;
+        setTargetDataSources(Map.of(DataSourceRole.PRIMARY, primary, DataSourceRole.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Long userId = CurrentUser.get();
+            if (userId != null) {
+                markWrite(userId);
+            }
+            return DataSourceRole.PRIMARY;
+        }
+        if (CurrentUser.wroteWithin(readYourWritesWindow, userId -> lastWrites.get().get(userId))) {
+            return DataSourceRole.PRIMARY;
+        }
+
+        return DataSourceRole.REPLICA;
+    }
+
+    private void markWrite(long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lastWrites.get().put(userId, CurrentUser.markWrite());
+                }
+            });
+        } else {
+            lastWrites.get().put(userId, CurrentUser.markWrite());
+        }
+    }
+}
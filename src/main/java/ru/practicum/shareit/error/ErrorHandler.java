@@ -1,6 +1,12 @@
 package ru.practicum.shareit.error;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -12,23 +18,48 @@ import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.error.model.ErrorResponse;
 
 import javax.validation.ConstraintViolationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 @RestControllerAdvice
 @Slf4j
 public class ErrorHandler {
 
+    private final ConcurrentMap<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ErrorLogLimiter> limiters = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final int logPermitsPerSecond;
+    private final int debugSampleRate;
+
+    public ErrorHandler(ObjectProvider<MeterRegistry> registry,
+                        @Value("${shareit.errors.log-permits-per-second:10}") int logPermitsPerSecond,
+                        @Value("${shareit.errors.debug-sample-rate:100}") int debugSampleRate) {
+        this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+        this.logPermitsPerSecond = logPermitsPerSecond;
+        this.debugSampleRate = debugSampleRate;
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleConflict(final ConflictException e) {
-        log.error("Conflict Exception", e);
+        logClientError(HttpStatus.CONFLICT, "Conflict Exception", e);
 
         return new ErrorResponse(e.getMessage(), "Conflict Exception");
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLock(final OptimisticLockingFailureException e) {
+        logClientError(HttpStatus.CONFLICT, "Conflict Exception", e);
+
+        return new ErrorResponse("Данные изменились во время запроса, повторите его", "Conflict Exception");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(final MethodArgumentNotValidException e) {
-        log.error("Validation Exception", e);
+        logClientError(HttpStatus.BAD_REQUEST, "Validation Exception", e);
 
         return new ErrorResponse(e.getMessage(), "Validation Exception");
     }
@@ -36,7 +67,7 @@ public class ErrorHandler {
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(final ConstraintViolationException e) {
-        log.error("Validation Exception", e);
+        logClientError(HttpStatus.BAD_REQUEST, "Validation Exception", e);
 
         return new ErrorResponse(e.getMessage(), "Validation Exception");
     }
@@ -44,7 +75,7 @@ public class ErrorHandler {
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFound(final NotFoundException e) {
-        log.error("Not found exception", e);
+        logClientError(HttpStatus.NOT_FOUND, "Not found exception", e);
 
         return new ErrorResponse(e.getMessage(), "Not found exception");
     }
@@ -52,7 +83,7 @@ public class ErrorHandler {
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleBadRequest(final BadRequestException e) {
-        log.error("Bad request exception", e);
+        logClientError(HttpStatus.BAD_REQUEST, "Bad request exception", e);
 
         return new ErrorResponse(e.getMessage(), "Bad request exception");
     }
@@ -60,8 +91,32 @@ public class ErrorHandler {
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleException(final Throwable e) {
+        count(HttpStatus.INTERNAL_SERVER_ERROR, e);
         log.error("Unknown exception", e);
 
         return new ErrorResponse(e.getMessage(), "Unknown");
     }
+
+    private void logClientError(HttpStatus status, String description, Exception e) {
+        count(status, e);
+        long suppressed = limiters
+                .computeIfAbsent(e.getClass(), type -> new ErrorLogLimiter(logPermitsPerSecond))
+                .tryAcquire();
+        if (suppressed > 0) {
+            log.warn("{}: {} (пропущено похожих сообщений: {})", description, e.getMessage(), suppressed);
+        } else if (suppressed == 0) {
+            log.warn("{}: {}", description, e.getMessage());
+        } else if (log.isDebugEnabled() && ThreadLocalRandom.current().nextInt(debugSampleRate) == 0) {
+            log.debug("{}: {}", description, e.getMessage());
+        }
+    }
+
+    private void count(HttpStatus status, Throwable e) {
+        counters.computeIfAbsent(e.getClass(), type -> Counter.builder("shareit.errors")
+                        .description("Количество ошибок, возвращенных клиентам")
+                        .tag("exception", type.getSimpleName())
+                        .tag("status", String.valueOf(status.value()))
+                        .register(registry))
+                .increment();
+    }
 }
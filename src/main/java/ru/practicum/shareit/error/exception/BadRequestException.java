@@ -3,6 +3,6 @@ package ru.practicum.shareit.error.exception;
 public class BadRequestException extends RuntimeException {
 
     public BadRequestException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
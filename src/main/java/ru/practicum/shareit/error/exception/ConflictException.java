@@ -3,6 +3,6 @@ package ru.practicum.shareit.error.exception;
 public class ConflictException extends RuntimeException {
 
     public ConflictException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -3,6 +3,6 @@ package ru.practicum.shareit.error.exception;
 public class NotFoundException extends RuntimeException {
 
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.idempotency")
+public class IdempotencyProperties {
+
+    private Duration expireAfterWrite = Duration.ofHours(24);
+    private Duration purgeInterval = Duration.ofMinutes(10);
+    private int maximumKeyLength = 255;
+}
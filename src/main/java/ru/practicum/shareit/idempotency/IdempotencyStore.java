@@ -0,0 +1,128 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import ru.practicum.shareit.error.exception.BadRequestException;
+import ru.practicum.shareit.error.exception.ConflictException;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+import ru.practicum.shareit.idempotency.repository.IdempotencyRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyRepository repository;
+    private final TransactionTemplate transaction;
+    private final ObjectMapper mapper;
+    private final AtomicReference<LocalDateTime> lastPurge = new AtomicReference<>(LocalDateTime.MIN);
+
+    public IdempotencyStore(IdempotencyProperties properties,
+                            IdempotencyRepository repository,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper mapper) {
+        this.properties = properties;
+        this.repository = repository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.mapper = mapper;
+    }
+
+    public <T> T execute(String idempotencyKey, String scope, long userId, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > properties.getMaximumKeyLength()) {
+            throw new BadRequestException("Некорректный " + HEADER);
+        }
+        String requestHash = DigestUtils.md5DigestAsHex(write(request).getBytes(StandardCharsets.UTF_8));
+        try {
+            return transaction.execute(status -> find(scope, userId, idempotencyKey)
+                    .map(record -> replay(record, requestHash, responseType))
+                    .orElseGet(() -> run(scope, userId, idempotencyKey, requestHash, action)));
+        } catch (KeyTakenException e) {
+            return transaction.execute(status -> find(scope, userId, idempotencyKey)
+                    .map(record -> replay(record, requestHash, responseType))
+                    .orElseThrow(() -> new ConflictException(
+                            "Запрос с " + HEADER + " " + idempotencyKey + " еще выполняется")));
+        }
+    }
+
+    private Optional<IdempotencyRecord> find(String scope, long userId, String idempotencyKey) {
+        LocalDateTime expired = LocalDateTime.now().minus(properties.getExpireAfterWrite());
+
+        return repository.findByScopeAndUserIdAndIdempotencyKey(scope, userId, idempotencyKey)
+                .filter(record -> !record.getCreated().isBefore(expired));
+    }
+
+    private <T> T run(String scope, long userId, String idempotencyKey, String requestHash, Supplier<T> action) {
+        LocalDateTime now = LocalDateTime.now();
+        purgeExpired(now);
+        IdempotencyRecord record;
+        try {
+            repository.deleteExpired(scope, userId, idempotencyKey, now.minus(properties.getExpireAfterWrite()));
+            record = repository.saveAndFlush(new IdempotencyRecord(null,
+                    scope,
+                    userId,
+                    idempotencyKey,
+                    requestHash,
+                    null,
+                    now));
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            throw new KeyTakenException();
+        }
+        T response = action.get();
+        repository.saveResponse(record.getId(), write(response));
+
+        return response;
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, Class<T> responseType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new ConflictException(HEADER + " " + record.getIdempotencyKey()
+                    + " уже использован для другого запроса");
+        }
+        try {
+            return mapper.readValue(record.getResponse(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать сохраненный ответ", e);
+        }
+    }
+
+    private void purgeExpired(LocalDateTime now) {
+        LocalDateTime last = lastPurge.get();
+        if (last.plus(properties.getPurgeInterval()).isAfter(now) || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+        int purged = repository.deleteExpired(now.minus(properties.getExpireAfterWrite()));
+        log.debug("Удалено {} устаревших ключей идемпотентности", purged);
+    }
+
+    private String write(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ", e);
+        }
+    }
+
+    private static class KeyTakenException extends RuntimeException {
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.idempotency.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndUserIdAndIdempotencyKey(String scope, Long userId, String key);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.response = ?2 WHERE r.id = ?1")
+    int saveResponse(Long id, String response);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.created < ?1")
+    int deleteExpired(LocalDateTime before);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.scope = ?1 AND r.userId = ?2 " +
+            "AND r.idempotencyKey = ?3 AND r.created < ?4")
+    int deleteExpired(String scope, Long userId, String key, LocalDateTime before);
+}
@@ -12,13 +12,15 @@ public class CommentMapper {
                 commentDto.getText(),
                 null,
                 null,
-                LocalDateTime.now());
+                null,
+                LocalDateTime.now(),
+                null);
     }
 
     public static CommentDto toCommentDto(Comment comment) {
         return new CommentDto(comment.getId(),
                 comment.getText(),
-                comment.getAuthor().getName(),
+                comment.getAuthorName(),
                 comment.getCreated());
     }
 }
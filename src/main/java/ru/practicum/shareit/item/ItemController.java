@@ -1,81 +1,141 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 import ru.practicum.shareit.misc.Marker;
+import ru.practicum.shareit.user.SharerId;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @Validated
 @RequestMapping("/items")
 @RequiredArgsConstructor
-@Slf4j
 public class ItemController {
 
     private final ItemService service;
+    private final IdempotencyStore idempotency;
 
     @GetMapping
-    public List<ItemDto> getItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                  @RequestParam(defaultValue = "0") @Min(0) int from,
-                                  @RequestParam(defaultValue = "100") @Min(1) int size) {
-        log.debug("Запрос на вывод всех вещей, начиная с {}, по {} на страницу", from, size);
-        return service.getAll(userId, from, size);
+    public List<?> getItems(@SharerId long userId,
+                            @RequestParam(defaultValue = "0") @Min(0) int from,
+                            @RequestParam(defaultValue = "100") @Min(1) int size,
+                            @RequestParam(defaultValue = "bookings,comments") List<String> include) {
+        Set<ItemInclude> parts = ItemInclude.parse(include);
+        if (parts.isEmpty()) {
+            return service.getAllShort(userId, from, size);
+        }
+
+        return service.getAll(userId, from, size, parts);
+    }
+
+    @GetMapping(params = "ids")
+    public List<?> getItemsByIds(@SharerId long userId,
+                                 @RequestParam @Size(min = 1, max = 100) List<Long> ids,
+                                 @RequestParam(defaultValue = "bookings,comments") List<String> include) {
+        Set<ItemInclude> parts = ItemInclude.parse(include);
+        if (parts.isEmpty()) {
+            return service.getShortByIds(ids);
+        }
+
+        return service.getByIds(ids, userId, parts);
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getById(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long itemId) {
-        log.debug("Запрос на вывод вещи {}", itemId);
-        return service.getById(itemId, userId);
+    public Object getById(@SharerId long userId,
+                          @PathVariable long itemId,
+                          @RequestParam(defaultValue = "bookings,comments") List<String> include,
+                          WebRequest request) {
+        Set<ItemInclude> parts = ItemInclude.parse(include);
+        if (request.checkNotModified(service.getETag(itemId, userId))) {
+            return null;
+        }
+        if (parts.isEmpty()) {
+            return service.getShortById(itemId);
+        }
+
+        return service.getById(itemId, userId, parts);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> getComments(@PathVariable long itemId,
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreated,
+                                        @RequestParam(required = false) Long beforeId,
+                                        @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return service.getComments(itemId, beforeCreated, beforeId, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<FreeSlotDto> getAvailability(@PathVariable long itemId,
+                                             @RequestParam
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return service.getAvailability(itemId, from, to);
     }
 
     @GetMapping("/search")
     public List<ItemDtoShort> searchItem(@RequestParam String text,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
                                          @RequestParam(defaultValue = "0") @Min(0) int from,
                                          @RequestParam(defaultValue = "100") @Min(1) int size) {
-        log.debug("Запрос на поиск вещей, содержащих в названии или описании {}", text);
-        return service.search(text, from, size);
+        if (start == null && end == null) {
+            return service.search(text, from, size);
+        }
+
+        return service.search(text, start, end, from, size);
     }
 
     @PostMapping
     @Validated({Marker.OnCreate.class})
-    public ItemDtoShort addItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public ItemDtoShort addItem(@SharerId long userId,
+                                @RequestHeader(value = IdempotencyStore.HEADER, required = false) String key,
                                 @RequestBody @Valid ItemDto itemDto) {
-        log.debug("Запрос на добавление новой вещи {}", itemDto.getName());
-        return service.add(itemDto, userId);
+        return idempotency.execute(key, "items", userId, itemDto, ItemDtoShort.class,
+                () -> service.add(itemDto, userId));
     }
 
     @PatchMapping("/{itemId}")
     @Validated({Marker.OnUpdate.class})
-    public ItemDtoShort updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public ItemDtoShort updateItem(@SharerId long userId,
                                    @PathVariable long itemId,
                                    @RequestBody @Valid ItemDto itemDto) {
-        log.debug("Запрос на обновление вещи {}", itemId);
         itemDto.setId(itemId);
 
         return service.update(itemDto, userId);
     }
 
     @DeleteMapping("/{itemId}")
-    public void deleteItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public void deleteItem(@SharerId long userId,
                            @PathVariable long itemId) {
-        log.debug("Запрос на удаление вещи {}", itemId);
         service.delete(itemId, userId);
     }
 
     @PostMapping("/{itemId}/comment")
     @Validated
-    public CommentDto addComment(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CommentDto addComment(@SharerId long userId,
                                  @PathVariable long itemId,
+                                 @RequestHeader(value = IdempotencyStore.HEADER, required = false) String key,
                                  @RequestBody @Valid CommentDto commentDto) {
-        log.debug("запрос на добавление комментария к вещи {} от пользователя {}", itemId, userId);
-        return service.addComment(commentDto, itemId, userId);
+        return idempotency.execute(key, "items/" + itemId + "/comment", userId, commentDto, CommentDto.class,
+                () -> service.addComment(commentDto, itemId, userId));
     }
 }
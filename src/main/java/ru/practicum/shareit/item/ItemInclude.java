@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.error.exception.BadRequestException;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum ItemInclude {
+    BOOKINGS,
+    COMMENTS;
+
+    private static final String NONE = "none";
+
+    public static Set<ItemInclude> parse(Collection<String> values) {
+        Set<ItemInclude> result = EnumSet.noneOf(ItemInclude.class);
+        for (String value : values) {
+            if (value.isBlank() || NONE.equalsIgnoreCase(value.trim())) {
+                continue;
+            }
+            try {
+                result.add(valueOf(value.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown include: " + value);
+            }
+        }
+
+        return result;
+    }
+}
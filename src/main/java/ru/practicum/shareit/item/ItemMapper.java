@@ -12,7 +12,9 @@ public class ItemMapper {
                 itemDto.getDescription(),
                 itemDto.getAvailable(),
                 null,
-                itemDto.getRequestId());
+                itemDto.getRequestId(),
+                0L,
+                null);
     }
 
     public static ItemDto toItemDto(Item item) {
@@ -23,7 +25,8 @@ public class ItemMapper {
                 item.getRequestId(),
                 null,
                 null,
-                null);
+                null,
+                item.getCommentCount());
     }
 
     public static ItemDtoShort toItemDtoShort(Item item) {
@@ -1,30 +1,48 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
 import ru.practicum.shareit.error.exception.BadRequestException;
 import ru.practicum.shareit.error.exception.ConflictException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.misc.ETags;
+import ru.practicum.shareit.misc.FanOut;
+import ru.practicum.shareit.misc.SingleFlight;
+import ru.practicum.shareit.user.UserIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.item.CommentMapper.toComment;
@@ -32,50 +50,164 @@ import static ru.practicum.shareit.item.CommentMapper.toCommentDto;
 import static ru.practicum.shareit.item.ItemMapper.*;
 
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ItemService {
 
+    private static final int LATEST_COMMENTS = 10;
+    private static final Duration MAX_AVAILABILITY_WINDOW = Duration.ofDays(366);
+
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
+    private final UserIndex userIndex;
     private final BookingService bookingService;
+    private final EntityCacheEvictor entityCaches;
+    private final SingleFlight singleFlight;
+    private final FanOut fanOut;
+    private final PlatformTransactionManager transactionManager;
 
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public ItemDto getById(long itemId, long userId) {
-        Item item = itemRepository.findById(itemId)
+        return getById(itemId, userId, EnumSet.allOf(ItemInclude.class));
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ItemDto getById(long itemId, long userId, Set<ItemInclude> include) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        ItemView view = singleFlight.execute("items", new ItemKey(itemId, include),
+                () -> transaction.execute(status -> loadView(itemId, include)));
+
+        return view.forUser(userId);
+    }
+
+    public String getETag(long itemId, long userId) {
+        return itemRepository.findVersionById(itemId, LocalDateTime.now())
+                .map(v -> v.getOwnerId() == userId
+                        ? ETags.of("owner", v.getVersion(), v.getCommentVersion(), v.getBookingCount(),
+                        v.getBookingChangeSeq(), v.getNextStart(), v.getNextEnd())
+                        : ETags.of("guest", v.getVersion(), v.getCommentVersion()))
+                .orElse(null);
+    }
+
+    public List<ItemDto> getAll(long userId, int from, int size) {
+        return getAll(userId, from, size, EnumSet.allOf(ItemInclude.class));
+    }
+
+    public ItemDtoShort getShortById(long itemId) {
+        return itemRepository.findById(itemId)
+                .map(ItemMapper::toItemDtoShort)
                 .orElseThrow(() -> new NotFoundException("Вещь " + itemId + " не найдена!"));
-        ItemDto result = toItemDto(item);
-        populateItemDto(result);
-        if (item.getOwnerId() != userId) {
-            result.setLastBooking(null);
-            result.setNextBooking(null);
+    }
+
+    public List<ItemDto> getAll(long userId, int from, int size, Set<ItemInclude> include) {
+        Pageable page = PageRequest.of(from / size, size, Sort.by("id").ascending());
+        List<ItemDto> items = itemRepository.findAllByOwnerId(userId, page).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+        if (!items.isEmpty()) {
+            populateItemDtos(items, include);
         }
 
-        return result;
+        return items;
     }
 
-    public List<ItemDto> getAll(long userId, int from, int size) {
+    public List<ItemDto> getByIds(List<Long> itemIds, long userId, Set<ItemInclude> include) {
+        Map<Long, Item> found = findAllByIds(itemIds);
+        List<ItemDto> items = itemIds.stream()
+                .distinct()
+                .map(found::get)
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+        populateItemDtos(items, include);
+        for (ItemDto dto : items) {
+            if (found.get(dto.getId()).getOwnerId() != userId) {
+                dto.setLastBooking(null);
+                dto.setNextBooking(null);
+            }
+        }
+
+        return items;
+    }
+
+    public List<ItemDtoShort> getShortByIds(List<Long> itemIds) {
+        Map<Long, Item> found = findAllByIds(itemIds);
+
+        return itemIds.stream()
+                .distinct()
+                .map(found::get)
+                .map(ItemMapper::toItemDtoShort)
+                .collect(Collectors.toList());
+    }
+
+    public List<ItemDtoShort> getAllShort(long userId, int from, int size) {
         Pageable page = PageRequest.of(from / size, size, Sort.by("id").ascending());
 
         return itemRepository.findAllByOwnerId(userId, page).stream()
-                .map(ItemMapper::toItemDto)
-                .peek(this::populateItemDto)
+                .map(ItemMapper::toItemDtoShort)
                 .collect(Collectors.toList());
     }
 
-    public ItemDtoShort add(ItemDto itemDto, long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("Пользователь по ID " + userId + " не найден");
+    public List<CommentDto> getComments(long itemId, LocalDateTime beforeCreated, Long beforeId, int size) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь " + itemId + " не найдена!");
+        }
+        if ((beforeCreated == null) != (beforeId == null)) {
+            throw new BadRequestException("Параметры beforeCreated и beforeId задаются вместе");
         }
+        Pageable page = PageRequest.of(0, size);
+        List<Comment> comments = beforeCreated == null
+                ? commentRepository.findAllByItemIdOrderByCreatedDescIdDesc(itemId, page)
+                : commentRepository.findAllByItemIdBefore(itemId, beforeCreated, beforeId, page);
+
+        return comments.stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
+    }
+
+    public List<FreeSlotDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("Начало периода должно быть раньше его конца");
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_WINDOW) > 0) {
+            throw new BadRequestException("Период не может быть длиннее " + MAX_AVAILABILITY_WINDOW.toDays() + " дней");
+        }
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь " + itemId + " не найдена!"));
+        List<FreeSlotDto> slots = new ArrayList<>();
+        if (!item.getAvailable()) {
+            return slots;
+        }
+        LocalDateTime free = from;
+        for (BookingDtoShort booking : bookingService.getReservedForItem(itemId, from, to)) {
+            if (booking.getStart().isAfter(free)) {
+                slots.add(new FreeSlotDto(free, booking.getStart()));
+            }
+            if (booking.getEnd().isAfter(free)) {
+                free = booking.getEnd();
+            }
+        }
+        if (free.isBefore(to)) {
+            slots.add(new FreeSlotDto(free, to));
+        }
+
+        return slots;
+    }
+
+    @Transactional
+    public ItemDtoShort add(ItemDto itemDto, long userId) {
+        userIndex.require(userId);
         Item item = toItem(itemDto);
         item.setOwnerId(userId);
+        entityCaches.evictQueriesOnOtherNodes();
 
         return toItemDtoShort(itemRepository.save(item));
     }
 
+    @Transactional
     public ItemDtoShort update(ItemDto itemDto, long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("Пользователь по ID " + userId + " не найден");
-        }
+        userIndex.require(userId);
         Item item = toItem(itemDto);
         Item itemToUpdate = itemRepository.findById(item.getId())
                 .filter(i -> i.getOwnerId() == userId)
@@ -89,18 +221,19 @@ public class ItemService {
         if (item.getAvailable() != null) {
             itemToUpdate.setAvailable(item.getAvailable());
         }
+        entityCaches.evictOnOtherNodes(Item.class, itemToUpdate.getId());
 
         return toItemDtoShort(itemRepository.save(itemToUpdate));
     }
 
+    @Transactional
     public void delete(long itemId, long userId) {
-        Optional<Item> optionalItem = itemRepository.findById(itemId)
-                .filter(i -> i.getOwnerId() == userId);
-        if (optionalItem.isPresent()) {
-            itemRepository.deleteById(itemId);
-        } else {
+        if (itemRepository.deleteOwned(itemId, userId) == 0) {
             throw new ConflictException("Это ведь не ваша вещь, чтоб ее удалять!");
         }
+        entityCaches.evictOnOtherNodes(Item.class, itemId);
+        entityCaches.evictAllCascaded(Comment.class);
+        entityCaches.evictQueriesOnOtherNodes();
     }
 
     public List<ItemDtoShort> search(String text, int from, int size) {
@@ -119,6 +252,31 @@ public class ItemService {
                 .collect(Collectors.toList());
     }
 
+    public List<ItemDtoShort> search(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        if (start == null && end == null) {
+            return search(text, from, size);
+        }
+        if (start == null || end == null) {
+            throw new BadRequestException("Параметры start и end задаются вместе");
+        }
+        if (!start.isBefore(end)) {
+            throw new BadRequestException("Начало периода должно быть раньше его конца");
+        }
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+        Pageable page = PageRequest.of(from / size, size, Sort.by("id").ascending());
+        List<Item> items = itemRepository.searchFree(text.toLowerCase(), start, end, Status.APPROVED.ordinal(), page);
+        if (items.isEmpty()) {
+            throw new NotFoundException("Искомая вещь не найдена!");
+        }
+
+        return items.stream()
+                .map(ItemMapper::toItemDtoShort)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
     public CommentDto addComment(CommentDto commentDto, long itemId, long userId) {
         User author = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь по ID " + userId + " не найден!"));
@@ -132,19 +290,127 @@ public class ItemService {
         }
         Comment comment = toComment(commentDto);
         comment.setAuthor(author);
+        comment.setAuthorName(author.getName());
         comment.setItem(item);
+        CommentDto result = toCommentDto(commentRepository.save(comment));
+        item.setCommentCount(item.getCommentCount() + 1);
+        entityCaches.evictOnOtherNodes(Item.class, itemId);
+        entityCaches.evictQueriesOnOtherNodes();
+
+        return result;
+    }
+
+    private Map<Long, Item> findAllByIds(List<Long> itemIds) {
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Long id : itemIds) {
+            if (!items.containsKey(id)) {
+                throw new NotFoundException("Вещь " + id + " не найдена!");
+            }
+        }
 
-        return toCommentDto(commentRepository.save(comment));
+        return items;
     }
 
-    private void populateItemDto(ItemDto dto) {
-        BookingDtoShort lastBooking = bookingService.getLastBookingForItem(dto.getId());
-        BookingDtoShort nextBooking = bookingService.getNextBookingForItem(dto.getId());
-        List<CommentDto> comments = commentRepository.findAllByItemId(dto.getId()).stream()
-                .map(CommentMapper::toCommentDto)
+    private ItemView loadView(long itemId, Set<ItemInclude> include) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь " + itemId + " не найдена!"));
+        ItemDto result = toItemDto(item);
+        populateItemDto(result, include);
+
+        return new ItemView(item.getOwnerId(), result);
+    }
+
+    private void populateItemDtos(List<ItemDto> items, Set<ItemInclude> include) {
+        List<Long> ids = items.stream()
+                .map(ItemDto::getId)
                 .collect(Collectors.toList());
-        dto.setLastBooking(lastBooking);
-        dto.setNextBooking(nextBooking);
-        dto.setComments(comments);
+        if (include.contains(ItemInclude.BOOKINGS)) {
+            Map<Long, BookingDtoShort> lastBookings = bookingService.getLastBookingsForItems(ids);
+            Map<Long, BookingDtoShort> nextBookings = bookingService.getNextBookingsForItems(ids);
+            for (ItemDto dto : items) {
+                dto.setLastBooking(lastBookings.get(dto.getId()));
+                dto.setNextBooking(nextBookings.get(dto.getId()));
+            }
+        }
+        if (include.contains(ItemInclude.COMMENTS)) {
+            Map<Long, List<CommentDto>> comments = commentRepository.findLatestByItemIds(ids, LATEST_COMMENTS).stream()
+                    .collect(Collectors.groupingBy(c -> c.getItem().getId(),
+                            Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+            for (ItemDto dto : items) {
+                dto.setComments(comments.getOrDefault(dto.getId(), new ArrayList<>()));
+            }
+        }
+    }
+
+    private void populateItemDto(ItemDto dto, Set<ItemInclude> include) {
+        if (fanOut.isEnabled()) {
+            populateItemDtoInParallel(dto, include);
+            return;
+        }
+        if (include.contains(ItemInclude.BOOKINGS)) {
+            BookingDtoShort lastBooking = bookingService.getLastBookingForItem(dto.getId());
+            BookingDtoShort nextBooking = bookingService.getNextBookingForItem(dto.getId());
+            dto.setLastBooking(lastBooking);
+            dto.setNextBooking(nextBooking);
+        }
+        if (include.contains(ItemInclude.COMMENTS)) {
+            List<CommentDto> comments = commentRepository
+                    .findAllByItemIdOrderByCreatedDescIdDesc(dto.getId(), PageRequest.of(0, LATEST_COMMENTS)).stream()
+                    .map(CommentMapper::toCommentDto)
+                    .collect(Collectors.toList());
+            dto.setComments(comments);
+        }
+    }
+
+    private void populateItemDtoInParallel(ItemDto dto, Set<ItemInclude> include) {
+        FanOut.Batch batch = fanOut.start();
+        Future<BookingDtoShort> lastBooking = null;
+        Future<BookingDtoShort> nextBooking = null;
+        Future<List<CommentDto>> comments = null;
+        if (include.contains(ItemInclude.BOOKINGS)) {
+            lastBooking = batch.submit(() -> bookingService.getLastBookingForItem(dto.getId()));
+            nextBooking = batch.submit(() -> bookingService.getNextBookingForItem(dto.getId()));
+        }
+        if (include.contains(ItemInclude.COMMENTS)) {
+            comments = batch.submit(() -> commentRepository
+                    .findAllByItemIdOrderByCreatedDescIdDesc(dto.getId(), PageRequest.of(0, LATEST_COMMENTS)).stream()
+                    .map(CommentMapper::toCommentDto)
+                    .collect(Collectors.toList()));
+        }
+        batch.join();
+        if (lastBooking != null) {
+            dto.setLastBooking(batch.get(lastBooking));
+            dto.setNextBooking(batch.get(nextBooking));
+        }
+        if (comments != null) {
+            dto.setComments(batch.get(comments));
+        }
+    }
+
+    @Value
+    private static class ItemKey {
+        long itemId;
+        Set<ItemInclude> include;
+    }
+
+    @Value
+    private static class ItemView {
+        long ownerId;
+        ItemDto item;
+
+        ItemDto forUser(long userId) {
+            boolean owner = ownerId == userId;
+
+            return new ItemDto(item.getId(),
+                    item.getName(),
+                    item.getDescription(),
+                    item.getAvailable(),
+                    item.getRequestId(),
+                    owner ? item.getLastBooking() : null,
+                    owner ? item.getNextBooking() : null,
+                    item.getComments(),
+                    item.getCommentCount());
+        }
     }
 }
@@ -24,5 +24,6 @@ public class ItemDto {
     private BookingDtoShort lastBooking;
     private BookingDtoShort nextBooking;
     private List<CommentDto> comments;
+    private Long commentCount;
 
 }
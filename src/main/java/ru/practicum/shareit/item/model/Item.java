@@ -1,8 +1,13 @@
 package ru.practicum.shareit.item.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 
@@ -10,6 +15,9 @@ import javax.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 50)
+@DynamicUpdate
 @Table(name = "items")
 
 public class Item {
@@ -25,4 +33,10 @@ public class Item {
     private Boolean available;
     private Long ownerId;
     private Long requestId;
+    @JsonIgnore
+    @Column(name = "comment_count", nullable = false)
+    private Long commentCount;
+    @JsonIgnore
+    @Version
+    private Long version;
 }
@@ -1,11 +1,31 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.item.model.Comment;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findAllByItemId(Long itemId);
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Comment> findAllByItemIdOrderByCreatedDescIdDesc(Long itemId, Pageable page);
+
+    @Query("SELECT c FROM Comment c WHERE c.item.id = ?1 " +
+            "AND (c.created < ?2 OR (c.created = ?2 AND c.id < ?3)) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findAllByItemIdBefore(Long itemId, LocalDateTime created, Long id, Pageable page);
+
+    @Query(value = "SELECT * FROM (SELECT c.*, ROW_NUMBER() OVER " +
+            "(PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn " +
+            "FROM comments c WHERE c.item_id IN (?1)) latest " +
+            "WHERE latest.rn <= ?2 ORDER BY latest.created DESC, latest.id DESC", nativeQuery = true)
+    List<Comment> findLatestByItemIds(Collection<Long> itemIds, int limit);
+
+    List<Comment> findAllByAuthorId(Long authorId);
 }
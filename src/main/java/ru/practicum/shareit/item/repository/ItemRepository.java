@@ -3,10 +3,15 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
@@ -16,7 +21,29 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             nativeQuery = true)
     Page<Item> search(String search, Pageable page);
 
+    @Query(value = "SELECT * FROM items " +
+            "WHERE available = TRUE AND " +
+            "(LOWER(name) LIKE '%' || ?1 || '%' OR LOWER(description) LIKE '%' || ?1 || '%') AND " +
+            "NOT EXISTS (SELECT 1 FROM bookings b WHERE b.item_id = items.id AND b.status = ?4 " +
+            "AND b.end_time > ?2 AND b.start_time < ?3)",
+            nativeQuery = true)
+    List<Item> searchFree(String search, LocalDateTime start, LocalDateTime end, int status, Pageable page);
+
     Page<Item> findAllByOwnerId(Long ownerId, Pageable page);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Item> findAllByRequestId(Long requestId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Item i WHERE i.id = ?1 AND i.ownerId = ?2")
+    int deleteOwned(Long itemId, Long ownerId);
+
+    @Query("SELECT i.version AS version, i.ownerId AS ownerId, " +
+            "(SELECT COALESCE(SUM(c.version), 0) FROM Comment c WHERE c.item.id = i.id) AS commentVersion, " +
+            "(SELECT COUNT(b) FROM Booking b WHERE b.item.id = i.id) AS bookingCount, " +
+            "(SELECT MAX(b.changeSeq) FROM Booking b WHERE b.item.id = i.id) AS bookingChangeSeq, " +
+            "(SELECT MIN(b.start) FROM Booking b WHERE b.item.id = i.id AND b.start > ?2) AS nextStart, " +
+            "(SELECT MIN(b.end) FROM Booking b WHERE b.item.id = i.id AND b.end > ?2) AS nextEnd " +
+            "FROM Item i WHERE i.id = ?1")
+    Optional<ItemVersion> findVersionById(Long itemId, LocalDateTime now);
 }
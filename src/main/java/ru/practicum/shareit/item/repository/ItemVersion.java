@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.repository;
+
+import java.time.LocalDateTime;
+
+public interface ItemVersion {
+
+    Long getVersion();
+
+    Long getOwnerId();
+
+    Long getCommentVersion();
+
+    Long getBookingCount();
+
+    Long getBookingChangeSeq();
+
+    LocalDateTime getNextStart();
+
+    LocalDateTime getNextEnd();
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.logging;
+
+public class ConnectionHoldTimer {
+
+    private static final ThreadLocal<long[]> STATS = ThreadLocal.withInitial(() -> new long[2]);
+
+    private ConnectionHoldTimer() {
+    }
+
+    public static void record(long nanos) {
+        long[] stats = STATS.get();
+        stats[0]++;
+        stats[1] += nanos;
+    }
+
+    public static void reset() {
+        long[] stats = STATS.get();
+        stats[0] = 0;
+        stats[1] = 0;
+    }
+
+    public static long getCount() {
+        return STATS.get()[0];
+    }
+
+    public static long getNanos() {
+        return STATS.get()[1];
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RequestSummaryFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger("shareit.requests");
+
+    private final double sampleRate;
+    private final long slowThresholdMillis;
+
+    public RequestSummaryFilter(@Value("${shareit.logging.requests.sample-rate:0.01}") double sampleRate,
+                                @Value("${shareit.logging.requests.slow-threshold-ms:500}") long slowThresholdMillis) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        if (!log.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        SqlStatementCounter.reset();
+        ConnectionHoldTimer.reset();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            int status = response.getStatus();
+            if (status >= 500 || latency >= slowThresholdMillis || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                log.info("route=\"{} {}\" user={} status={} latencyMs={} sql={} connections={} connectionMs={}",
+                        request.getMethod(),
+                        route != null ? route : request.getRequestURI(),
+                        request.getHeader("X-Sharer-User-Id"),
+                        status,
+                        latency,
+                        SqlStatementCounter.get(),
+                        ConnectionHoldTimer.getCount(),
+                        TimeUnit.NANOSECONDS.toMillis(ConnectionHoldTimer.getNanos()));
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.misc;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Component
+@EnableConfigurationProperties(FanOutProperties.class)
+public class FanOut {
+
+    private final FanOutProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolExecutor executor;
+
+    public FanOut(FanOutProperties properties, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.transactionManager = transactionManager;
+        this.executor = properties.isEnabled()
+                ? new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                threadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy())
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    public Batch start() {
+        if (executor == null) {
+            throw new IllegalStateException("Параллельная выборка выключена");
+        }
+
+        return new Batch(System.nanoTime() + properties.getTimeout().toNanos());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "fan-out-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public class Batch {
+
+        private final long deadline;
+        private final CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+        private final List<Future<Object>> futures = new ArrayList<>();
+
+        private Batch(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> Future<T> submit(Supplier<T> lookup) {
+            Future<Object> future = completion.submit(() -> inTransaction(lookup));
+            futures.add(future);
+
+            return (Future<T>) future;
+        }
+
+        public void join() {
+            try {
+                for (int i = 0; i < futures.size(); i++) {
+                    Future<Object> done = completion.poll(remaining(), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        throw new QueryTimeoutException("Превышено время ожидания параллельной выборки: "
+                                + properties.getTimeout());
+                    }
+                    done.get();
+                }
+            } catch (ExecutionException e) {
+                cancel();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Параллельная выборка прервана", e);
+            } catch (RuntimeException e) {
+                cancel();
+                throw e;
+            }
+        }
+
+        public <T> T get(Future<T> future) {
+            try {
+                return future.get(0, TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException("Результат выборки еще не получен", e);
+            }
+        }
+
+        private Object inTransaction(Supplier<?> lookup) {
+            if (remaining() <= 0) {
+                throw new QueryTimeoutException("Превышено время ожидания параллельной выборки: "
+                        + properties.getTimeout());
+            }
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining() + 999_999_999L)));
+
+            return transaction.execute(status -> lookup.get());
+        }
+
+        private long remaining() {
+            return deadline - System.nanoTime();
+        }
+
+        private void cancel() {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.misc;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.fan-out")
+public class FanOutProperties {
+
+    private boolean enabled = false;
+    private int threads = 8;
+    private int queueCapacity = 64;
+    private Duration timeout = Duration.ofSeconds(2);
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.misc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Value;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+@Component
+public class SingleFlight {
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+
+    @Autowired
+    public SingleFlight(ObjectProvider<MeterRegistry> registry) {
+        this(registry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    public SingleFlight(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, Object key, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        Meters counters = meters.computeIfAbsent(name, this::register);
+        Key flightKey = new Key(name, key);
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, created);
+        if (running != null) {
+            counters.getCoalesced().increment();
+            return (T) await(running);
+        }
+        counters.getExecuted().increment();
+        try {
+            T result = loader.get();
+            created.complete(result);
+
+            return result;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, created);
+        }
+    }
+
+    private Meters register(String name) {
+        return new Meters(counter(name, "executed"), counter(name, "coalesced"));
+    }
+
+    private Counter counter(String name, String result) {
+        return Counter.builder("shareit.single.flight")
+                .description("Количество чтений, выполненных и присоединенных к уже идущему запросу")
+                .tag("name", name)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Value
+    private static class Key {
+        String name;
+        Object key;
+    }
+
+    @Value
+    private static class Meters {
+        Counter executed;
+        Counter coalesced;
+    }
+}
@@ -1,12 +1,14 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
 import ru.practicum.shareit.misc.Marker;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoFull;
+import ru.practicum.shareit.user.SharerId;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
@@ -16,37 +18,40 @@ import java.util.List;
 @Validated
 @RequiredArgsConstructor
 @RequestMapping(path = "/requests")
-@Slf4j
 public class ItemRequestController {
 
     private final ItemRequestService service;
+    private final IdempotencyStore idempotency;
 
     @PostMapping
     @Validated({Marker.OnCreate.class})
-    public ItemRequestDto addRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+    public ItemRequestDto addRequest(@SharerId long userId,
+                                     @RequestHeader(value = IdempotencyStore.HEADER, required = false) String key,
                                      @RequestBody @Valid ItemRequestDto requestDto) {
-        log.debug("Создание нового запроса от пользователя {}", userId);
-        return service.add(requestDto, userId);
+        return idempotency.execute(key, "requests", userId, requestDto, ItemRequestDto.class,
+                () -> service.add(requestDto, userId));
     }
 
     @GetMapping
-    public List<ItemRequestDtoFull> getForAuthor(@RequestHeader("X-Sharer-User-Id") long userId) {
-        log.debug("Просмотр всех запросов от пользователя {}", userId);
+    public List<ItemRequestDtoFull> getForAuthor(@SharerId long userId) {
         return service.getForAuthor(userId);
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDtoFull> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
+    public List<ItemRequestDtoFull> getAll(@SharerId long userId,
                                            @RequestParam(defaultValue = "0") @Min(0) int from,
                                            @RequestParam(defaultValue = "100") @Min(1) int size) {
-        log.debug("Вывод всех запросов начиная с {}, по {} запросов на странице", from, size);
         return service.getAll(userId, from, size);
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDtoFull getById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                  @PathVariable long requestId) {
-        log.debug("Вывод запроса {}", requestId);
+    public ItemRequestDtoFull getById(@SharerId long userId,
+                                      @PathVariable long requestId,
+                                      WebRequest request) {
+        if (request.checkNotModified(service.getETag(userId, requestId))) {
+            return null;
+        }
+
         return service.getById(userId, requestId);
     }
 }
@@ -14,7 +14,8 @@ public class ItemRequestMapper {
         return new ItemRequest(null,
                 dto.getDescription(),
                 null,
-                LocalDateTime.now());
+                LocalDateTime.now(),
+                null);
     }
 
     public static ItemRequestDto toItemRequestDto(ItemRequest request) {
@@ -5,15 +5,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.misc.ETags;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoFull;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.UserIndex;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -21,17 +23,17 @@ import java.util.stream.Collectors;
 import static ru.practicum.shareit.request.ItemRequestMapper.*;
 
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ItemRequestService {
 
     private final ItemRepository itemRepository;
     private final ItemRequestRepository requestRepository;
-    private final UserRepository userRepository;
+    private final UserIndex userIndex;
 
+    @Transactional
     public ItemRequestDto add(ItemRequestDto dto, Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("Пользователь по ID " + userId + " не найден");
-        }
+        userIndex.require(userId);
         ItemRequest request = toItemRequest(dto);
         request.setRequestorId(userId);
 
@@ -39,19 +41,21 @@ public class ItemRequestService {
     }
 
     public ItemRequestDtoFull getById(Long userId, Long requestId) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("Пользователь по ID " + userId + " не найден");
-        }
+        userIndex.require(userId);
         ItemRequest request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Запрос " + requestId + " не найден!"));
 
         return getRequestDto(request);
     }
 
+    public String getETag(Long userId, Long requestId) {
+        return requestRepository.findVersionById(requestId, userId)
+                .map(v -> ETags.of(v.getVersion(), v.getItems(), v.getItemVersions(), v.getLastItemId()))
+                .orElse(null);
+    }
+
     public List<ItemRequestDtoFull> getForAuthor(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("Пользователь по ID " + userId + " не найден");
-        }
+        userIndex.require(userId);
         List<ItemRequest> requests = requestRepository.findAllByRequestorId(userId);
 
         return requests.stream()
@@ -60,9 +64,7 @@ public class ItemRequestService {
     }
 
     public List<ItemRequestDtoFull> getAll(Long userId, int from, int size) {
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException("Пользователь по ID " + userId + " не найден");
-        }
+        userIndex.require(userId);
         Pageable page = PageRequest.of(from / size, size, Sort.by("created").ascending());
 
         return requestRepository.findAllByRequestorIdIsNot(userId, page).stream()
@@ -71,7 +73,7 @@ public class ItemRequestService {
     }
 
     private ItemRequestDtoFull getRequestDto(ItemRequest request) {
-        List<ItemDtoShort> items = itemRepository.findAllByRequestId(request.getRequestorId()).stream()
+        List<ItemDtoShort> items = itemRepository.findAllByRequestId(request.getId()).stream()
                 .map(ItemMapper::toItemDtoShort)
                 .collect(Collectors.toList());
 
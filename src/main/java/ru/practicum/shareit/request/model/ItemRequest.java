@@ -22,4 +22,6 @@ public class ItemRequest {
     private Long requestorId;
     @Column(name = "created", nullable = false)
     private LocalDateTime created;
+    @Version
+    private Long version;
 }
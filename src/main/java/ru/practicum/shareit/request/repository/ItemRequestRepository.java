@@ -3,13 +3,24 @@ package ru.practicum.shareit.request.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findAllByRequestorId(Long requestorId);
 
     Page<ItemRequest> findAllByRequestorIdIsNot(Long requestorId, Pageable page);
+
+    @Query(value = "SELECT r.version AS version, " +
+            "COUNT(i.id) AS items, " +
+            "COALESCE(SUM(i.version), 0) AS itemVersions, " +
+            "COALESCE(MAX(i.id), 0) AS lastItemId " +
+            "FROM requests r LEFT JOIN items i ON i.request_id = r.id " +
+            "WHERE r.id = ?1 AND EXISTS (SELECT 1 FROM users u WHERE u.id = ?2) " +
+            "GROUP BY r.id, r.version", nativeQuery = true)
+    Optional<ItemRequestVersion> findVersionById(Long requestId, Long userId);
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.repository;
+
+public interface ItemRequestVersion {
+
+    Long getVersion();
+
+    Long getItems();
+
+    Long getItemVersions();
+
+    Long getLastItemId();
+}
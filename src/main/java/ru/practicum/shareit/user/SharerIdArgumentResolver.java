@@ -0,0 +1,52 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import ru.practicum.shareit.error.exception.BadRequestException;
+
+@Component
+@RequiredArgsConstructor
+public class SharerIdArgumentResolver implements HandlerMethodArgumentResolver {
+
+    public static final String HEADER = "X-Sharer-User-Id";
+    private static final String ATTRIBUTE = SharerIdArgumentResolver.class.getName() + ".userId";
+
+    private final UserIndex users;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(SharerId.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                  ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest,
+                                  WebDataBinderFactory binderFactory) throws Exception {
+        Object resolved = webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved != null) {
+            return resolved;
+        }
+        String header = webRequest.getHeader(HEADER);
+        if (header == null) {
+            throw new MissingRequestHeaderException(HEADER, parameter);
+        }
+        long userId;
+        try {
+            userId = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный " + HEADER + ": " + header);
+        }
+        users.require(userId);
+        webRequest.setAttribute(ATTRIBUTE, userId, RequestAttributes.SCOPE_REQUEST);
+
+        return userId;
+    }
+}
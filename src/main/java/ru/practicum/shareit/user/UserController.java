@@ -1,53 +1,81 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.misc.Marker;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @Validated
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
-@Slf4j
 public class UserController {
 
+    public static final String NDJSON = "application/x-ndjson";
+
     private final UserService service;
+    private final ObjectMapper mapper;
 
     @GetMapping("/{userId}")
     public UserDto getById(@PathVariable long userId) {
-        log.debug("Принят запрос на отображение пользователя {}", userId);
         return service.getById(userId);
     }
 
     @GetMapping
-    public List<UserDto> getUsers() {
-        log.debug("Принят запрос на вывод всех пользователей");
-        return service.getAll();
+    public List<UserDto> getUsers(@RequestParam(defaultValue = "0") @Min(0) long afterId,
+                                  @RequestParam(required = false) @Min(1) @Max(1000) Integer size) {
+        if (size == null) {
+            return service.getAll();
+        }
+
+        return service.getPage(afterId, size);
+    }
+
+    @GetMapping(produces = NDJSON)
+    public StreamingResponseBody streamUsers() {
+        return out -> service.streamAll(user -> writeLine(out, user));
+    }
+
+    @GetMapping(params = "ids")
+    public List<UserDto> getUsersByIds(@RequestParam @Size(min = 1, max = 100) List<Long> ids) {
+        return service.getByIds(ids);
     }
 
     @PostMapping
     @Validated({Marker.OnCreate.class})
     public UserDto createUser(@RequestBody @Valid UserDto userDto) {
-        log.debug("Принят запрос на создание пользователя по имени {}", userDto.getName());
         return service.add(userDto);
     }
 
     @PatchMapping("/{userId}")
     @Validated({Marker.OnUpdate.class})
     public UserDto updateUser(@PathVariable long userId, @RequestBody @Valid UserDto userDto) {
-        log.debug("Принят запрос на обновление пользователя {}", userId);
         return service.update(userDto, userId);
     }
 
     @DeleteMapping("/{userId}")
     public void deleteUser(@PathVariable long userId) {
-        log.debug("Принят запрос на удаление пользователя {}", userId);
         service.delete(userId);
     }
+
+    private void writeLine(OutputStream out, UserDto user) {
+        try {
+            out.write(mapper.writeValueAsBytes(user));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
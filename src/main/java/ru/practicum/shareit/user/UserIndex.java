@@ -0,0 +1,150 @@
+package ru.practicum.shareit.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.cache.InvalidationMessage;
+import ru.practicum.shareit.cache.InvalidationTransport;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class UserIndex {
+
+    private static final String CACHE_NAME = "user-ids";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final BitSet known = new BitSet();
+    private final long[] removals = new long[GENERATION_STRIPES];
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final UserRepository repository;
+    private final InvalidationTransport transport;
+
+    public UserIndex(UserRepository repository, InvalidationTransport transport) {
+        this.repository = repository;
+        this.transport = transport;
+        transport.subscribe(this::onMessage);
+    }
+
+    public void require(long userId) {
+        if (!exists(userId)) {
+            throw new NotFoundException("Пользователь по ID " + userId + " не найден");
+        }
+    }
+
+    public boolean exists(long userId) {
+        if (isKnown(userId)) {
+            return true;
+        }
+        long generation = removalGeneration(userId);
+        boolean exists = repository.existsById(userId);
+        if (exists) {
+            afterCommit(() -> setIfNotRemoved(userId, generation));
+        }
+
+        return exists;
+    }
+
+    public void added(long userId) {
+        afterCommit(() -> markKnown(userId));
+    }
+
+    public void removed(long userId) {
+        afterCommit(() -> {
+            remove(userId);
+            transport.publish(new InvalidationMessage(nodeId, CACHE_NAME, String.valueOf(userId)));
+        });
+    }
+
+    private boolean isKnown(long userId) {
+        if (userId < 0 || userId > Integer.MAX_VALUE) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return known.get((int) userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long removalGeneration(long userId) {
+        lock.readLock().lock();
+        try {
+            return removals[stripe(userId)];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void setIfNotRemoved(long userId, long generation) {
+        if (userId < 0 || userId > Integer.MAX_VALUE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (removals[stripe(userId)] == generation) {
+                known.set((int) userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void markKnown(long userId) {
+        if (userId < 0 || userId > Integer.MAX_VALUE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            known.set((int) userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            removals[stripe(userId)]++;
+            if (userId >= 0 && userId <= Integer.MAX_VALUE) {
+                known.clear((int) userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int stripe(long userId) {
+        return (int) Math.floorMod(userId, (long) GENERATION_STRIPES);
+    }
+
+    private void onMessage(InvalidationMessage message) {
+        if (nodeId.equals(message.getOrigin()) || !CACHE_NAME.equals(message.getCacheName())) {
+            return;
+        }
+        log.debug("Пользователь {} удален на узле {}", message.getKey(), message.getOrigin());
+        remove(Long.parseLong(message.getKey()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
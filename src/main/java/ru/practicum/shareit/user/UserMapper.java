@@ -6,7 +6,7 @@ import ru.practicum.shareit.user.model.User;
 public class UserMapper {
 
     public static User toUser(UserDto userDto) {
-        return new User(null, userDto.getName(), userDto.getEmail());
+        return new User(null, userDto.getName(), userDto.getEmail(), null);
     }
 
     public static UserDto toUserDto(User user) {
@@ -1,48 +1,83 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.user.UserMapper.toUser;
 import static ru.practicum.shareit.user.UserMapper.toUserDto;
 
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository repository;
+    private final CommentRepository commentRepository;
+    private final EntityCacheEvictor entityCaches;
+    private final UserIndex userIndex;
 
+    @Transactional
     public UserDto add(UserDto userDto) {
-        User userToAdd = toUser(userDto);
+        User added = repository.save(toUser(userDto));
+        userIndex.added(added.getId());
 
-        return toUserDto(repository.save(userToAdd));
+        return toUserDto(added);
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = "users", key = "#id")
     public UserDto update(UserDto userDto, long id) {
         User userToUpdate = repository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь по ID " + id + " не найден!"));
         User user = toUser(userDto);
-        if (user.getName() != null) {
+        if (user.getName() != null && !user.getName().equals(userToUpdate.getName())) {
             userToUpdate.setName(user.getName());
+            for (Comment comment : commentRepository.findAllByAuthorId(id)) {
+                comment.setAuthorName(user.getName());
+                entityCaches.evictOnOtherNodes(Comment.class, comment.getId());
+            }
         }
         if (user.getEmail() != null) {
             userToUpdate.setEmail(user.getEmail());
         }
+        entityCaches.evictOnOtherNodes(User.class, id);
 
         return toUserDto(repository.save(userToUpdate));
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = "users", key = "#id")
     public void delete(long id) {
-        repository.deleteById(id);
+        if (repository.deleteOne(id) == 0) {
+            throw new NotFoundException("Пользователь по ID " + id + " не найден!");
+        }
+        userIndex.removed(id);
+        entityCaches.evictOnOtherNodes(User.class, id);
+        entityCaches.evictAllCascaded(Item.class);
+        entityCaches.evictAllCascaded(Comment.class);
+        entityCaches.evictQueriesOnOtherNodes();
     }
 
+    @Cacheable(cacheNames = "users", key = "#id")
     public UserDto getById(long id) {
         User user = repository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь по ID " + id + " не найден!"));
@@ -50,9 +85,37 @@ public class UserService {
         return toUserDto(user);
     }
 
+    public List<UserDto> getByIds(List<Long> ids) {
+        Map<Long, User> users = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return ids.stream()
+                .distinct()
+                .map(id -> {
+                    User user = users.get(id);
+                    if (user == null) {
+                        throw new NotFoundException("Пользователь по ID " + id + " не найден!");
+                    }
+                    return toUserDto(user);
+                })
+                .collect(Collectors.toList());
+    }
+
     public List<UserDto> getAll() {
         return repository.findAll().stream()
                 .map(UserMapper::toUserDto)
                 .collect(Collectors.toList());
     }
+
+    public List<UserDto> getPage(long afterId, int size) {
+        return repository.findAllByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size)).stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
+    public void streamAll(Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = repository.streamAll()) {
+            users.forEach(consumer);
+        }
+    }
 }
@@ -1,8 +1,9 @@
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    name  VARCHAR(255)                            NOT NULL,
-    email VARCHAR(512)                            NOT NULL,
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name    VARCHAR(255)                            NOT NULL,
+    email   VARCHAR(512)                            NOT NULL,
+    version BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id),
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
@@ -13,6 +14,7 @@ CREATE TABLE IF NOT EXISTS requests
     description  VARCHAR                                 NOT NULL,
     requestor_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
     created      TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    version      BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_request PRIMARY KEY (id)
 );
 
@@ -24,6 +26,8 @@ CREATE TABLE IF NOT EXISTS items
     available   BOOLEAN                                 NOT NULL,
     owner_id    BIGINT REFERENCES users (id) ON DELETE CASCADE,
     request_id  BIGINT REFERENCES requests (id) ON DELETE CASCADE,
+    comment_count BIGINT DEFAULT 0                      NOT NULL,
+    version     BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_item PRIMARY KEY (id)
 );
 
@@ -32,11 +36,15 @@ CREATE TABLE IF NOT EXISTS comments
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     text      VARCHAR(512)                            NOT NULL,
     author_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
+    author_name VARCHAR(255)                          NOT NULL,
     item_id   BIGINT REFERENCES items (id) ON DELETE CASCADE,
     created   TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    version   BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_comment PRIMARY KEY (id)
 );
 
+CREATE SEQUENCE IF NOT EXISTS booking_change_seq;
+
 CREATE TABLE IF NOT EXISTS bookings
 (
     id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -45,7 +53,39 @@ CREATE TABLE IF NOT EXISTS bookings
     item_id    BIGINT REFERENCES items (id) ON DELETE CASCADE,
     booker_id  BIGINT REFERENCES users (id) ON DELETE CASCADE,
     status     INTEGER                                 NOT NULL,
+    change_seq BIGINT DEFAULT nextval('booking_change_seq') NOT NULL,
+    changed_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    version    BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_booking PRIMARY KEY (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_change ON bookings (booker_id, change_seq);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_change ON bookings (item_id, change_seq);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_time);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_changed ON bookings (changed_at, change_seq);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_time);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id, created, id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys
+(
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    scope           VARCHAR(64)                             NOT NULL,
+    user_id         BIGINT                                  NOT NULL,
+    idempotency_key VARCHAR(255)                            NOT NULL,
+    request_hash    VARCHAR(32)                             NOT NULL,
+    response        VARCHAR,
+    created         TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (id),
+    CONSTRAINT uq_idempotency_key UNIQUE (scope, user_id, idempotency_key)
+);
 
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created ON idempotency_keys (created);
@@ -0,0 +1,123 @@
+package ru.practicum.shareit;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDtoIncome;
+import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.ItemRequestService;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static ru.practicum.shareit.booking.model.Status.APPROVED;
+
+@Tag("postgres")
+class PostgresRepositoryTest {
+
+    private static EmbeddedPostgres postgres;
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.builder()
+                .setLocaleConfig("encoding", "UTF8")
+                .setLocaleConfig("locale", "C.UTF-8")
+                .start();
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=prod",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.sql.init.data-locations=classpath:data.sql",
+                        "--spring.jmx.enabled=false");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Test
+    void bookingQueriesForAllStates() {
+        BookingService service = context.getBean(BookingService.class);
+
+        for (String state : List.of("ALL", "PAST", "FUTURE", "CURRENT", "WAITING", "REJECTED")) {
+            service.getForUser(3L, state, 0, 10);
+            service.getForOwner(1L, state, 0, 10);
+        }
+
+        assertThat(service.getForOwner(1L, "ALL", 0, 10).size(), equalTo(4));
+        assertThat(service.getForOwner(1L, "REJECTED", 0, 10).size(), equalTo(1));
+    }
+
+    @Test
+    void idempotentBookingRetry() {
+        BookingService service = context.getBean(BookingService.class);
+        IdempotencyStore store = context.getBean(IdempotencyStore.class);
+        BookingDtoIncome request = new BookingDtoIncome(LocalDateTime.now().plusDays(3),
+                LocalDateTime.now().plusDays(4), 2L);
+
+        BookingDtoOutcome first = store.execute("retry-1", "bookings", 3L, request, BookingDtoOutcome.class,
+                () -> service.add(request, 3L));
+        BookingDtoOutcome second = store.execute("retry-1", "bookings", 3L, request, BookingDtoOutcome.class,
+                () -> service.add(request, 3L));
+
+        assertThat(second.getId(), equalTo(first.getId()));
+        assertThat(second.getItem().getName(), equalTo("Молоток"));
+    }
+
+    @Test
+    void bookingChangeFeedAndETag() {
+        BookingService service = context.getBean(BookingService.class);
+        long since = service.getChangesForOwner(1L, 0, 100).getLastSequence();
+
+        BookingDtoOutcome booking = service.add(new BookingDtoIncome(LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), 4L), 1L);
+        service.approve(3L, booking.getId(), true);
+        context.getBean(JdbcTemplate.class).update("UPDATE bookings SET changed_at = changed_at - INTERVAL '1 minute'");
+
+        assertThat(service.getChangesForUser(1L, since, 100).getBookings().get(0).getStatus(), equalTo(APPROVED));
+        assertThat(service.getETag(1L, booking.getId()) != null, equalTo(true));
+    }
+
+    @Test
+    void itemQueries() {
+        ItemService service = context.getBean(ItemService.class);
+
+        ItemDto item = service.getById(1L, 1L);
+
+        assertThat(item.getComments().size(), equalTo(2));
+        assertThat(service.getAll(1L, 0, 10).size(), equalTo(2));
+        assertThat(service.search("молоток", 0, 10).size(), equalTo(2));
+        assertThat(service.search("молоток", LocalDateTime.of(2023, 11, 25, 7, 30),
+                LocalDateTime.of(2023, 11, 25, 7, 45), 0, 10).size(), equalTo(2));
+        assertThat(service.getAvailability(1L, LocalDateTime.of(2022, 11, 1, 0, 0),
+                LocalDateTime.of(2022, 12, 1, 0, 0)).size(), equalTo(2));
+        assertThat(service.getETag(1L, 1L).equals(service.getETag(1L, 2L)), equalTo(false));
+    }
+
+    @Test
+    void requestQueries() {
+        ItemRequestService service = context.getBean(ItemRequestService.class);
+
+        assertThat(service.getAll(1L, 0, 10).size(), equalTo(1));
+        assertThat(service.getById(1L, 1L).getItems().size(), equalTo(1));
+        assertThat(service.getETag(1L, 1L) != null, equalTo(true));
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.error.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingApproveConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    private final BookingService service;
+
+    @Test
+    void onlyOneConcurrentDecisionWins() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<BookingDtoOutcome>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approved = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                ready.countDown();
+                go.await();
+                try {
+                    return service.approve(1L, 2L, approved);
+                } catch (BadRequestException e) {
+                    return null;
+                }
+            }));
+        }
+        ready.await();
+        go.countDown();
+
+        List<BookingDtoOutcome> winners = new ArrayList<>();
+        for (Future<BookingDtoOutcome> result : results) {
+            BookingDtoOutcome booking = result.get();
+            if (booking != null) {
+                winners.add(booking);
+            }
+        }
+        executor.shutdown();
+
+        assertThat(winners.size(), equalTo(1));
+        Status decided = winners.get(0).getStatus();
+        assertThat(service.get(1L, 2L).getStatus(), equalTo(decided));
+        assertThat(decided == Status.APPROVED || decided == Status.REJECTED, equalTo(true));
+    }
+}
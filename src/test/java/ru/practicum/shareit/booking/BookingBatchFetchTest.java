@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.user.UserIndex;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingBatchFetchTest {
+
+    private static final int ITEMS = 20;
+    private static final int BOOKERS = 30;
+    private static final int BOOKINGS = 100;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbc;
+    private final BookingService bookingService;
+    private final UserIndex userIndex;
+    private Statistics statistics;
+
+    @BeforeEach
+    void insertBookings() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long firstItem = jdbc.queryForObject("SELECT MAX(id) FROM items", Long.class) + 1;
+        long firstBooker = jdbc.queryForObject("SELECT MAX(id) FROM users", Long.class) + 1;
+        for (int i = 0; i < BOOKERS; i++) {
+            jdbc.update("INSERT INTO users (name, email) VALUES (?, ?)", "Booker" + i, "booker" + i + "@mail.ru");
+        }
+        for (int i = 0; i < ITEMS; i++) {
+            jdbc.update("INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, TRUE, 1)",
+                    "Item" + i, "Item" + i);
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < BOOKINGS; i++) {
+            jdbc.update("INSERT INTO bookings (start_time, end_time, item_id, booker_id, status) " +
+                            "VALUES (?, ?, ?, ?, 0)",
+                    start, start.plusHours(1), firstItem + i % ITEMS, firstBooker + i % BOOKERS);
+        }
+    }
+
+    @Test
+    void statementCountDoesNotDependOnPageSize() {
+        userIndex.require(1L);
+
+        long smallPage = countStatements(() -> bookingService.getForOwner(1L, "ALL", 0, 10));
+        long largePage = countStatements(() -> bookingService.getForOwner(1L, "ALL", 0, BOOKINGS));
+
+        assertThat(largePage, equalTo(smallPage));
+        assertThat(bookingService.getForOwner(1L, "ALL", 0, BOOKINGS).size(), equalTo(BOOKINGS));
+    }
+
+    private long countStatements(Runnable action) {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        action.run();
+
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingChangeSeqTest {
+
+    private final BookingRepository repository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Test
+    void changeSeqDoesNotWaitForOpenTransactions() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Future<Long> first = executor.submit(() -> transaction.execute(status -> {
+            Long seq = repository.nextChangeSeq();
+            taken.countDown();
+            await(commit);
+            return seq;
+        }));
+        taken.await();
+        Future<Long> second = executor.submit(() -> transaction.execute(status -> repository.nextChangeSeq()));
+
+        Long secondSeq = second.get(5, TimeUnit.SECONDS);
+        assertThat(first.isDone(), equalTo(false));
+        commit.countDown();
+
+        assertThat(secondSeq, greaterThan(first.get(5, TimeUnit.SECONDS)));
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
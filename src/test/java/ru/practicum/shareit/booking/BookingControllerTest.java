@@ -1,19 +1,27 @@
 package ru.practicum.shareit.booking;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingChangesDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIncome;
 import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
 import ru.practicum.shareit.error.exception.BadRequestException;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserIndex;
+import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.Matchers.is;
@@ -21,7 +29,9 @@ import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.booking.model.Status.APPROVED;
 import static ru.practicum.shareit.booking.model.Status.WAITING;
@@ -36,6 +46,12 @@ class BookingControllerTest {
     @MockBean
     BookingService service;
 
+    @MockBean
+    UserIndex userIndex;
+
+    @MockBean
+    IdempotencyStore idempotency;
+
     @Autowired
     private MockMvc mvc;
 
@@ -56,6 +72,12 @@ class BookingControllerTest {
             null,
             APPROVED);
 
+    @BeforeEach
+    void passThroughIdempotency() {
+        when(idempotency.execute(any(), any(), anyLong(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(5).get());
+    }
+
     @Test
     void addBookingWithStatusOk() throws Exception {
         when(service.add(any(), anyLong()))
@@ -74,6 +96,40 @@ class BookingControllerTest {
         verify(service, times(1)).add(dtoIn, 1L);
     }
 
+    @Test
+    void addBookingWithIdempotencyKeyWithStatusOk() throws Exception {
+        when(service.add(any(), anyLong()))
+                .thenReturn(dtoOut1);
+
+        mvc.perform(post("/bookings")
+                        .content(mapper.writeValueAsString(dtoIn))
+                        .characterEncoding(UTF_8)
+                        .contentType(APPLICATION_JSON)
+                        .accept(APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("Idempotency-Key", "booking-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(dtoOut1.getId()), Long.class));
+
+        verify(idempotency, times(1)).execute(eq("booking-1"), eq("bookings"), eq(1L), eq(dtoIn),
+                eq(BookingDtoOutcome.class), any());
+    }
+
+    @Test
+    void getBookingsByIdsWithStatusOk() throws Exception {
+        when(service.getByIds(anyLong(), anyList()))
+                .thenReturn(List.of(dtoOut2, dtoOut1));
+
+        mvc.perform(get("/bookings?ids=3,2")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(dtoOut2.getId()), Long.class))
+                .andExpect(jsonPath("$[1].id", is(dtoOut1.getId()), Long.class));
+
+        verify(service, times(1)).getByIds(1L, List.of(3L, 2L));
+        verify(service, never()).getForUser(anyLong(), any(), anyInt(), anyInt());
+    }
+
     @Test
     void addBookingWithWrongStartWithStatusBadRequest() throws Exception {
         BookingDtoIncome noStart = new BookingDtoIncome(past, end, 1L);
@@ -226,6 +282,40 @@ class BookingControllerTest {
         verify(service, times(1)).get(1L, 2L);
     }
 
+    @Test
+    void getBookingHidesEntityVersionsWithStatusOk() throws Exception {
+        when(service.get(anyLong(), anyLong()))
+                .thenReturn(new BookingDtoOutcome(2L,
+                        start,
+                        end,
+                        new Item(1L, "Пила", "Острая", true, 1L, null, 3L, 7L),
+                        new User(2L, "Beta", "beta@yandex.ru", 4L),
+                        WAITING));
+
+        mvc.perform(get("/bookings/2")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.name", is("Пила")))
+                .andExpect(jsonPath("$.item.commentCount").doesNotExist())
+                .andExpect(jsonPath("$.item.version").doesNotExist())
+                .andExpect(jsonPath("$.booker.name", is("Beta")))
+                .andExpect(jsonPath("$.booker.version").doesNotExist());
+    }
+
+    @Test
+    void getBookingWithMatchingETagWithStatusNotModified() throws Exception {
+        when(service.getETag(anyLong(), anyLong())).thenReturn("\"v1\"");
+
+        mvc.perform(get("/bookings/2")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v1\""));
+
+        verify(service, times(1)).getETag(1L, 2L);
+        verify(service, never()).get(anyLong(), anyLong());
+    }
+
     @Test
     void getBookingWithStatusNotFound() throws Exception {
         when(service.get(anyLong(), anyLong()))
@@ -374,4 +464,83 @@ class BookingControllerTest {
 
         verify(service, times(1)).getForOwner(1L, "WAITING", 2, 2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getChangesForUserWithStatusOk() throws Exception {
+        when(service.getChangesForUser(anyLong(), anyLong(), anyInt()))
+                .thenReturn(new BookingChangesDto(7L, List.of(dtoOut1, dtoOut2)));
+
+        mvc.perform(get("/bookings/changes?since=5&size=2")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastSequence", is(7L), Long.class))
+                .andExpect(jsonPath("$.bookings", hasSize(2)))
+                .andExpect(jsonPath("$.bookings[0].id", is(dtoOut1.getId()), Long.class));
+
+        verify(service, times(1)).getChangesForUser(1L, 5L, 2);
+    }
+
+    @Test
+    void getChangesForOwnerWithStatusOk() throws Exception {
+        when(service.getChangesForOwner(anyLong(), anyLong(), anyInt()))
+                .thenReturn(new BookingChangesDto(3L, List.of()));
+
+        mvc.perform(get("/bookings/owner/changes?since=3")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastSequence", is(3L), Long.class))
+                .andExpect(jsonPath("$.bookings", hasSize(0)));
+
+        verify(service, times(1)).getChangesForOwner(1L, 3L, 100);
+    }
+
+    @Test
+    void getChangesWithWrongSinceWithStatusBadRequest() throws Exception {
+        mvc.perform(get("/bookings/changes?since=-1")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.description", is("Validation Exception")));
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void subscribeWithStatusOk() throws Exception {
+        when(service.subscribe(anyLong(), any()))
+                .thenReturn(new SseEmitter());
+
+        mvc.perform(get("/bookings/events")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("Last-Event-ID", 5L))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(service, times(1)).subscribe(1L, 5L);
+    }
+
+    @Test
+    void subscribeWithWrongLastEventIdWithStatusOk() throws Exception {
+        when(service.subscribe(anyLong(), any()))
+                .thenReturn(new SseEmitter());
+
+        mvc.perform(get("/bookings/events")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("Last-Event-ID", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(service, times(1)).subscribe(1L, null);
+    }
+
+    @Test
+    void subscribeWithWrongUserWithStatusNotFound() throws Exception {
+        when(service.subscribe(anyLong(), any()))
+                .thenThrow(new NotFoundException("Пользователь по ID 134 не найден"));
+
+        mvc.perform(get("/bookings/events")
+                        .header("X-Sharer-User-Id", 134L))
+                .andExpect(status().isNotFound());
+
+        verify(service, times(1)).subscribe(134L, null);
+    }
+}
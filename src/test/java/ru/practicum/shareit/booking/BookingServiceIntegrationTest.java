@@ -6,12 +6,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingChangesDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIncome;
 import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.error.exception.BadRequestException;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.logging.SqlStatementCounter;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
@@ -20,6 +23,8 @@ import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static ru.practicum.shareit.booking.model.Status.*;
@@ -131,6 +136,44 @@ class BookingServiceIntegrationTest {
         assertThat(booking1.getStatus(), equalTo(APPROVED));
     }
 
+    @Test
+    void getByIds() {
+        SqlStatementCounter.reset();
+
+        List<BookingDtoOutcome> bookings = service.getByIds(2L, List.of(6L, 1L, 3L));
+
+        assertThat(SqlStatementCounter.get(), equalTo(1));
+        assertThat(bookings.size(), equalTo(3));
+        assertThat(bookings.get(0).getId(), equalTo(6L));
+        assertThat(bookings.get(1), equalTo(service.get(2L, 1L)));
+        assertThat(bookings.get(2).getId(), equalTo(3L));
+    }
+
+    @Test
+    void getByIdsFailWrongRequest() {
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> service.getByIds(2L, List.of(1L, 2L)));
+        assertThat(e.getMessage(), equalTo("Бронирование к вам не относится."));
+    }
+
+    @Test
+    void getETag() {
+        String bookerTag = service.getETag(2L, 1L);
+
+        assertThat(bookerTag, equalTo(service.getETag(1L, 1L)));
+        assertThat(service.getETag(4L, 1L), nullValue());
+        assertThat(service.getETag(2L, 222L), nullValue());
+    }
+
+    @Test
+    void getETagChangesAfterApprove() {
+        String before = service.getETag(1L, 2L);
+
+        service.approve(1L, 2L, true);
+
+        assertThat(service.getETag(1L, 2L), not(equalTo(before)));
+    }
+
     @Test
     void getFailBookingNotFound() {
         NotFoundException e = assertThrows(NotFoundException.class,
@@ -237,6 +280,80 @@ class BookingServiceIntegrationTest {
         assertThat(e.getMessage(), equalTo("Пользователь по ID 134 не найден"));
     }
 
+    @Test
+    void getChangesForUser() {
+        BookingChangesDto changes = service.getChangesForUser(1L, 0, 10);
+
+        assertThat(changes.getBookings().size(), equalTo(2));
+        assertThat(changes.getBookings().get(0).getId(), equalTo(3L));
+        assertThat(changes.getBookings().get(1).getId(), equalTo(4L));
+        assertThat(changes.getLastSequence(), equalTo(4L));
+    }
+
+    @Test
+    void getChangesForOwnerAfterApprove() {
+        BookingChangesDto all = service.getChangesForOwner(1L, 0, 10);
+        service.approve(1L, 2L, true);
+        ageChanges();
+
+        BookingChangesDto changes = service.getChangesForOwner(1L, all.getLastSequence(), 10);
+
+        assertThat(all.getBookings().size(), equalTo(4));
+        assertThat(changes.getBookings().size(), equalTo(1));
+        assertThat(changes.getBookings().get(0).getId(), equalTo(2L));
+        assertThat(changes.getBookings().get(0).getStatus(), equalTo(APPROVED));
+        assertThat(changes.getLastSequence() > all.getLastSequence(), equalTo(true));
+    }
+
+    @Test
+    void getChangesHoldsBackChangesWithinCommitLag() {
+        BookingChangesDto all = service.getChangesForOwner(1L, 0, 10);
+        service.approve(1L, 2L, true);
+        em.createNativeQuery("UPDATE bookings SET change_seq = nextval('booking_change_seq'), changed_at = ?1 " +
+                        "WHERE id = 6")
+                .setParameter(1, LocalDateTime.now().minusMinutes(1))
+                .executeUpdate();
+
+        BookingChangesDto changes = service.getChangesForOwner(1L, all.getLastSequence(), 10);
+
+        assertThat(changes.getBookings().size(), equalTo(0));
+        assertThat(changes.getLastSequence(), equalTo(all.getLastSequence()));
+
+        ageChanges();
+
+        assertThat(service.getChangesForOwner(1L, all.getLastSequence(), 10).getBookings().size(), equalTo(2));
+    }
+
+    @Test
+    void getChangesWithoutNewChanges() {
+        BookingChangesDto changes = service.getChangesForUser(1L, 100, 10);
+
+        assertThat(changes.getBookings().size(), equalTo(0));
+        assertThat(changes.getLastSequence(), equalTo(100L));
+    }
+
+    @Test
+    void getChangesFailWrongUser() {
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> service.getChangesForOwner(134L, 0, 10));
+        assertThat(e.getMessage(), equalTo("Пользователь по ID 134 не найден"));
+    }
+
+    @Test
+    void subscribeWithReplay() {
+        SseEmitter emitter = service.subscribe(1L, 0L);
+
+        assertThat(emitter != null, equalTo(true));
+        emitter.complete();
+    }
+
+    @Test
+    void subscribeFailWrongUser() {
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> service.subscribe(134L, null));
+        assertThat(e.getMessage(), equalTo("Пользователь по ID 134 не найден"));
+    }
+
     @Test
     void getNextBookingForItem() {
         BookingDtoShort booking1 = service.getNextBookingForItem(1L);
@@ -254,4 +371,10 @@ class BookingServiceIntegrationTest {
         assertThat(booking1.getId(), equalTo(5L));
         assertThat(booking2, nullValue());
     }
-}
\ No newline at end of file
+
+    private void ageChanges() {
+        em.createQuery("UPDATE Booking b SET b.changedAt = ?1")
+                .setParameter(1, LocalDateTime.now().minusMinutes(1))
+                .executeUpdate();
+    }
+}
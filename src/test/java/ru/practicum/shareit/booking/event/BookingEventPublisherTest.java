@@ -0,0 +1,166 @@
+package ru.practicum.shareit.booking.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static ru.practicum.shareit.booking.model.Status.APPROVED;
+import static ru.practicum.shareit.booking.model.Status.WAITING;
+
+class BookingEventPublisherTest {
+
+    private final BookingEventProperties properties = new BookingEventProperties();
+    private BookingEventPublisher publisher;
+
+    @AfterEach
+    void shutdown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void publishToBookerAndOwnerOnly() throws InterruptedException {
+        publisher = new BookingEventPublisher(properties);
+        RecordingEmitter booker = new RecordingEmitter();
+        RecordingEmitter owner = new RecordingEmitter();
+        RecordingEmitter stranger = new RecordingEmitter();
+        publisher.subscribe(2L, booker).replay(List.of());
+        publisher.subscribe(1L, owner).replay(List.of());
+        publisher.subscribe(3L, stranger).replay(List.of());
+
+        publisher.publish(booking(10L, 2L, 1L));
+
+        assertThat(booker.awaitEvents(1), equalTo(List.of("10")));
+        assertThat(owner.awaitEvents(1), equalTo(List.of("10")));
+        assertThat(stranger.awaitEvents(0), equalTo(List.of()));
+    }
+
+    @Test
+    void replayBeforeLiveEventsWithoutDuplicates() throws InterruptedException {
+        publisher = new BookingEventPublisher(properties);
+        RecordingEmitter emitter = new RecordingEmitter();
+        BookingSubscription subscription = publisher.subscribe(2L, emitter);
+
+        publisher.publish(booking(12L, 2L, 1L));
+        publisher.publish(booking(13L, 2L, 1L));
+        subscription.replay(List.of(event(11L), event(12L)));
+
+        assertThat(emitter.awaitEvents(3), equalTo(List.of("11", "12", "13")));
+    }
+
+    @Test
+    void resyncWhenReplayIsTooLarge() throws InterruptedException {
+        publisher = new BookingEventPublisher(properties);
+        RecordingEmitter emitter = new RecordingEmitter();
+        BookingSubscription subscription = publisher.subscribe(2L, emitter);
+
+        subscription.resync();
+        publisher.publish(booking(14L, 2L, 1L));
+
+        assertThat(emitter.awaitEvents(2), equalTo(List.of("resync", "14")));
+    }
+
+    @Test
+    void closeSlowSubscriberOnOverflow() throws InterruptedException {
+        properties.setQueueCapacity(2);
+        properties.setSenderThreads(1);
+        publisher = new BookingEventPublisher(properties);
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.block();
+        BookingSubscription subscription = publisher.subscribe(2L, emitter);
+        subscription.replay(List.of());
+
+        for (long seq = 1; seq <= 10 && !subscription.isClosed(); seq++) {
+            publisher.publish(booking(seq, 2L, 1L));
+        }
+        emitter.unblock();
+
+        assertThat(subscription.isClosed(), equalTo(true));
+        assertThat(publisher.countSubscriptions(2L), equalTo(0));
+    }
+
+    @Test
+    void heartbeatKeepsConnectionAlive() throws InterruptedException {
+        properties.setHeartbeat(Duration.ofMillis(20));
+        publisher = new BookingEventPublisher(properties);
+        RecordingEmitter emitter = new RecordingEmitter();
+        publisher.subscribe(2L, emitter).replay(List.of());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (emitter.heartbeats() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(emitter.heartbeats() > 0, equalTo(true));
+    }
+
+    private static Booking booking(long seq, long bookerId, long ownerId) {
+        User booker = new User(bookerId, "booker", "booker@mail.ru", null);
+        Item item = new Item(1L, "item", "description", true, ownerId, null, 0L, null);
+
+        return new Booking(seq, null, null, item, booker, APPROVED, seq, null, null);
+    }
+
+    private static BookingEvent event(long seq) {
+        return new BookingEvent(seq, new BookingDtoOutcome(seq, null, null, null, null, WAITING));
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(builder.build().stream()
+                    .map(d -> d.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void unblock() {
+            gate.countDown();
+        }
+
+        long heartbeats() {
+            return sent.stream().filter(s -> s.contains(":heartbeat")).count();
+        }
+
+        List<String> awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (events().size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+
+            return events();
+        }
+
+        private List<String> events() {
+            return sent.stream()
+                    .filter(s -> s.startsWith("id:") || s.startsWith("event:resync"))
+                    .map(s -> s.startsWith("id:") ? s.substring(3, s.indexOf('\n')) : "resync")
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class CacheConfigTest {
+
+    private final ApplicationContext context;
+    private final HealthEndpoint healthEndpoint;
+
+    @Test
+    void localTransportDoesNotNeedRedis() {
+        CompositeHealth health = (CompositeHealth) healthEndpoint.health();
+
+        assertThat(context.getBeanNamesForType(RedisConnectionFactory.class).length, equalTo(0));
+        assertThat(context.getBean(InvalidationTransport.class), instanceOf(InMemoryInvalidationTransport.class));
+        assertThat(health.getComponents().containsKey("redis"), equalTo(false));
+        assertThat(health.getStatus(), equalTo(Status.UP));
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDtoIncome;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.logging.SqlStatementCounter;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class EntityCacheTest {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityCacheEvictor evictor;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRequestService requestService;
+    private final UserService userService;
+    private final MeterRegistry registry;
+    private Statistics statistics;
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void secondReadHitsEntityAndQueryCache() {
+        itemService.getById(1L, 1L);
+        itemService.getById(1L, 1L);
+
+        assertThat(statistics.getSecondLevelCacheHitCount() > 0, equalTo(true));
+        assertThat(statistics.getQueryCacheHitCount() > 0, equalTo(true));
+    }
+
+    @Test
+    void requestItemsComeFromQueryCache() {
+        requestService.getById(1L, 1L);
+        requestService.getById(1L, 1L);
+
+        assertThat(statistics.getQueryCacheHitCount() > 0, equalTo(true));
+    }
+
+    @Test
+    @DirtiesContext
+    void repeatedPatchReadsFromEntityCache() {
+        itemService.update(patch("Пила 2"), 1L);
+        userService.update(new UserDto(null, null, "gamma@yandex.ru"), 3L);
+        bookingService.add(new BookingDtoIncome(LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
+                1L), 3L);
+        itemService.addComment(new CommentDto(null, "Отлично!", null, null), 1L, 2L);
+        statistics.clear();
+        SqlStatementCounter.reset();
+
+        itemService.update(patch("Пила 3"), 1L);
+        userService.update(new UserDto(null, null, "delta@yandex.ru"), 3L);
+
+        assertThat(statistics.getSecondLevelCacheHitCount(), equalTo(2L));
+        assertThat(statistics.getSecondLevelCacheMissCount(), equalTo(0L));
+        assertThat(SqlStatementCounter.get(), equalTo(2));
+    }
+
+    @Test
+    @DirtiesContext
+    void bookingKeepsOtherItemsCached() {
+        itemService.getShortById(1L);
+
+        bookingService.add(new BookingDtoIncome(LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
+                2L), 3L);
+        statistics.clear();
+        SqlStatementCounter.reset();
+
+        itemService.getShortById(1L);
+
+        assertThat(entityManagerFactory.getCache().contains(Item.class, 2L), equalTo(true));
+        assertThat(statistics.getSecondLevelCacheHitCount(), equalTo(1L));
+        assertThat(SqlStatementCounter.get(), equalTo(0));
+    }
+
+    @Test
+    void evictionOnOtherNodesKeepsLocalEntry() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.find(User.class, 2L);
+        entityManager.close();
+        assertThat(entityManagerFactory.getCache().contains(User.class, 2L), equalTo(true));
+
+        evictor.evictOnOtherNodes(User.class, 2L);
+        evictor.evictAllOnOtherNodes(User.class);
+
+        assertThat(entityManagerFactory.getCache().contains(User.class, 2L), equalTo(true));
+    }
+
+    @Test
+    void cascadedEvictionClearsLocalRegion() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.find(User.class, 2L);
+        entityManager.close();
+        assertThat(entityManagerFactory.getCache().contains(User.class, 2L), equalTo(true));
+
+        evictor.evictAllCascaded(User.class);
+
+        assertThat(entityManagerFactory.getCache().contains(User.class, 2L), equalTo(false));
+    }
+
+    @Test
+    void publishCacheStatistics() {
+        itemService.getById(1L, 1L);
+
+        assertThat(registry.find("hibernate.second.level.cache.requests").meters().isEmpty(), equalTo(false));
+        assertThat(registry.find("hibernate.cache.query.requests").meters().isEmpty(), equalTo(false));
+    }
+
+    private static ItemDto patch(String name) {
+        return new ItemDto(1L, name, null, null, null, null, null, null, null);
+    }
+}
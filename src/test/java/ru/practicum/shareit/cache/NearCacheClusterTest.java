@@ -0,0 +1,127 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.user.UserIndex;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class NearCacheClusterTest {
+
+    private static final Duration MAX_DELAY = Duration.ofSeconds(2);
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        InvalidationTransport transport = new InMemoryInvalidationTransport();
+        String url = "jdbc:h2:mem:cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        nodeA = startNode(transport, url, "always");
+        nodeB = startNode(transport, url, "never");
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void updateOnOneNodeEvictsEntryOnAnother() throws InterruptedException {
+        UserService serviceA = nodeA.getBean(UserService.class);
+        UserService serviceB = nodeB.getBean(UserService.class);
+
+        assertThat(serviceB.getById(1L).getName(), equalTo("Alfa"));
+        nodeA.getBean(JdbcTemplate.class).update("UPDATE users SET name = 'Omega' WHERE id = 1");
+        assertThat(serviceB.getById(1L).getName(), equalTo("Alfa"));
+
+        serviceA.update(new UserDto(null, "Gamma", null), 1L);
+
+        assertThat(awaitName(serviceB, 1L, "Gamma"), equalTo("Gamma"));
+    }
+
+    @Test
+    void deleteOnOneNodeEvictsEntryOnAnother() throws InterruptedException {
+        UserService serviceA = nodeA.getBean(UserService.class);
+        UserService serviceB = nodeB.getBean(UserService.class);
+        NearCacheManager cacheManagerB = nodeB.getBean(NearCacheManager.class);
+
+        serviceB.getById(2L);
+        assertThat(cacheManagerB.getCache("users").get(2L) != null, equalTo(true));
+
+        serviceA.delete(2L);
+
+        long deadline = System.nanoTime() + MAX_DELAY.toNanos();
+        while (cacheManagerB.getCache("users").get(2L) != null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cacheManagerB.getCache("users").get(2L) == null, equalTo(true));
+    }
+
+    @Test
+    void updateOnOneNodeEvictsEntityCacheOnAnother() throws InterruptedException {
+        UserService serviceA = nodeA.getBean(UserService.class);
+        EntityManagerFactory entityManagerFactoryB = nodeB.getBean(EntityManagerFactory.class);
+        nodeB.getBean(UserService.class).getAll();
+        assertThat(entityManagerFactoryB.getCache().contains(User.class, 3L), equalTo(true));
+
+        serviceA.update(new UserDto(null, "Gamma", null), 3L);
+
+        long deadline = System.nanoTime() + MAX_DELAY.toNanos();
+        while (entityManagerFactoryB.getCache().contains(User.class, 3L) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(entityManagerFactoryB.getCache().contains(User.class, 3L), equalTo(false));
+        assertThat(nodeA.getBean(EntityManagerFactory.class).getCache().contains(User.class, 3L), equalTo(true));
+    }
+
+    @Test
+    void deleteOnOneNodeForgetsUserOnAnother() throws InterruptedException {
+        UserIndex indexB = nodeB.getBean(UserIndex.class);
+        assertThat(indexB.exists(2L), equalTo(true));
+
+        nodeA.getBean(UserService.class).delete(2L);
+
+        long deadline = System.nanoTime() + MAX_DELAY.toNanos();
+        while (indexB.exists(2L) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(indexB.exists(2L), equalTo(false));
+    }
+
+    private static String awaitName(UserService service, long id, String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + MAX_DELAY.toNanos();
+        String name = service.getById(id).getName();
+        while (!expected.equals(name) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            name = service.getById(id).getName();
+        }
+
+        return name;
+    }
+
+    private static ConfigurableApplicationContext startNode(InvalidationTransport transport, String url, String init) {
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("invalidationTransport", transport))
+                .run("--spring.datasource.url=" + url,
+                        "--spring.sql.init.mode=" + init,
+                        "--spring.jmx.enabled=false");
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.logging.ConnectionHoldTimer;
+import ru.practicum.shareit.request.ItemRequestService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ConnectionHoldTimeTest {
+
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRequestService requestService;
+
+    @BeforeEach
+    void reset() {
+        ConnectionHoldTimer.reset();
+    }
+
+    @Test
+    void getItemWithBookingsAndCommentsUsesOneConnection() {
+        itemService.getById(1L, 1L);
+
+        assertThat(ConnectionHoldTimer.getCount(), equalTo(1L));
+    }
+
+    @Test
+    void getItemsForOwnerUsesOneConnection() {
+        itemService.getAll(1L, 0, 10);
+
+        assertThat(ConnectionHoldTimer.getCount(), equalTo(1L));
+    }
+
+    @Test
+    void getBookingsUsesOneConnection() {
+        bookingService.getForOwner(1L, "ALL", 0, 10);
+
+        assertThat(ConnectionHoldTimer.getCount(), equalTo(1L));
+    }
+
+    @Test
+    void getRequestsUsesOneConnection() {
+        requestService.getAll(1L, 0, 10);
+
+        assertThat(ConnectionHoldTimer.getCount(), equalTo(1L));
+    }
+}
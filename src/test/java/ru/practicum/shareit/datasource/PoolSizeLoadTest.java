@@ -0,0 +1,146 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@Slf4j
+@Tag("postgres")
+@EnabledIfSystemProperty(named = "shareit.loadtest", matches = "true")
+class PoolSizeLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("shareit.loadtest.clients", 64);
+    private static final long DURATION_MILLIS = Long.getLong("shareit.loadtest.duration-ms", 5000);
+    private static final int[] POOL_SIZES = Arrays.stream(System.getProperty("shareit.loadtest.pool-sizes",
+                    "2,4,8,16,32").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.builder()
+                .setLocaleConfig("encoding", "UTF8")
+                .setLocaleConfig("locale", "C.UTF-8")
+                .start();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void measurePoolSizes() throws InterruptedException {
+        List<Result> results = new ArrayList<>();
+        for (int poolSize : POOL_SIZES) {
+            Result result = run(poolSize);
+            log.info("Пул {}: {} запросов/с, p99 {} мс, ожидание соединения {} мс", poolSize,
+                    Math.round(result.throughput), String.format("%.2f", result.p99Millis),
+                    String.format("%.3f", result.meanAcquireMillis));
+            results.add(result);
+        }
+
+        assertThat(results.size(), equalTo(POOL_SIZES.length));
+    }
+
+    private static Result run(int poolSize) throws InterruptedException {
+        String database = "load_" + poolSize;
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE DATABASE " + database);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=prod",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", database),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.sql.init.data-locations=classpath:data.sql",
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "--spring.datasource.hikari.minimum-idle=" + poolSize,
+                        "--spring.datasource.hikari.connection-timeout=30000",
+                        "--spring.jmx.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level." + PoolSizeLoadTest.class.getName() + "=INFO");
+        try {
+            ItemService items = context.getBean(ItemService.class);
+            ItemRequestService requests = context.getBean(ItemRequestService.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            Timer latency = Timer.builder("loadtest.latency").publishPercentiles(0.99).register(registry);
+            AtomicLong completed = new AtomicLong();
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            CountDownLatch done = new CountDownLatch(CLIENTS);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.execute(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            long userId = ThreadLocalRandom.current().nextLong(1, 4);
+                            latency.record(() -> {
+                                if (ThreadLocalRandom.current().nextBoolean()) {
+                                    items.getAll(userId, 0, 20);
+                                } else {
+                                    requests.getAll(userId, 0, 20);
+                                }
+                            });
+                            completed.incrementAndGet();
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            clients.shutdown();
+            Timer acquire = registry.get("hikaricp.connections.acquire").tag("pool", "primary").timer();
+
+            return new Result(poolSize,
+                    completed.get() * 1000.0 / DURATION_MILLIS,
+                    latency.takeSnapshot().percentileValues()[0].value(TimeUnit.MILLISECONDS),
+                    acquire.mean(TimeUnit.MILLISECONDS));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static class Result {
+
+        private final int poolSize;
+        private final double throughput;
+        private final double p99Millis;
+        private final double meanAcquireMillis;
+
+        Result(int poolSize, double throughput, double p99Millis, double meanAcquireMillis) {
+            this.poolSize = poolSize;
+            this.throughput = throughput;
+            this.p99Millis = p99Millis;
+            this.meanAcquireMillis = meanAcquireMillis;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.*;
+
+class RedisLastWriteStoreTest {
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final StringRedisTemplate template = mock(StringRedisTemplate.class);
+    private final RedisLastWriteStore store = new RedisLastWriteStore(template, Duration.ofSeconds(5));
+
+    RedisLastWriteStoreTest() {
+        when(template.opsForValue()).thenReturn(values);
+    }
+
+    @Test
+    void putExpiresAfterWindow() {
+        store.put(1L, Instant.ofEpochMilli(1000));
+
+        verify(values).set("shareit:last-write:1", "1000", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void getReadsMarkerByUser() {
+        when(values.get("shareit:last-write:1")).thenReturn("1000");
+        when(values.get("shareit:last-write:2")).thenReturn("abc");
+
+        assertThat(store.get(1L), equalTo(Instant.ofEpochMilli(1000)));
+        assertThat(store.get(2L), nullValue());
+        assertThat(store.get(3L), nullValue());
+    }
+
+    @Test
+    void getWithoutRedisFallsBackToReplica() {
+        when(values.get(anyString())).thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        assertThat(store.get(1L), nullValue());
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+class ReplicaRoutingTest {
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate primary;
+
+    @BeforeEach
+    void start() {
+        String primaryUrl = "jdbc:h2:mem:primary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String replicaUrl = "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource replica = new DriverManagerDataSource(replicaUrl, "sa", "password");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(replica);
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + primaryUrl,
+                        "--shareit.datasource.replica.url=" + replicaUrl,
+                        "--shareit.datasource.replica.username=sa",
+                        "--shareit.datasource.replica.password=password",
+                        "--spring.jmx.enabled=false");
+        primary = new JdbcTemplate(new DriverManagerDataSource(primaryUrl, "sa", "password"));
+        primary.update("UPDATE users SET name = 'Primary' WHERE id = 3");
+    }
+
+    @AfterEach
+    void stop() {
+        CurrentUser.clear();
+        context.close();
+    }
+
+    @Test
+    void readOnlyQueriesGoToReplica() {
+        UserService users = context.getBean(UserService.class);
+
+        assertThat(users.getAll().get(2).getName(), equalTo("Delta"));
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        UserService users = context.getBean(UserService.class);
+
+        users.update(new UserDto(null, "Updated", null), 1L);
+
+        assertThat(primary.queryForObject("SELECT name FROM users WHERE id = 1", String.class),
+                equalTo("Updated"));
+        assertThat(users.getAll().get(0).getName(), equalTo("Alfa"));
+    }
+
+    @Test
+    void readYourWritesAfterOwnWrite() {
+        ItemService items = context.getBean(ItemService.class);
+        UserService users = context.getBean(UserService.class);
+
+        CurrentUser.set(1L);
+        items.update(new ItemDto(1L, "Renamed", null, null, null, null, null, null, null), 1L);
+
+        assertThat(items.getAll(1L, 0, 10).get(0).getName(), equalTo("Renamed"));
+        assertThat(users.getAll().get(2).getName(), equalTo("Primary"));
+
+        CurrentUser.set(2L);
+        assertThat(users.getAll().get(2).getName(), equalTo("Delta"));
+    }
+
+    @Test
+    void readYourWritesFromSharedMarker() {
+        UserService users = context.getBean(UserService.class);
+        LastWriteStore lastWrites = context.getBean(LastWriteStore.class);
+
+        lastWrites.put(2L, Instant.now());
+        CurrentUser.set(2L);
+        assertThat(users.getAll().get(2).getName(), equalTo("Primary"));
+
+        lastWrites.put(3L, Instant.now().minus(Duration.ofMinutes(1)));
+        CurrentUser.set(3L);
+        assertThat(users.getAll().get(2).getName(), equalTo("Delta"));
+
+        lastWrites.put(1L, Instant.now().plus(Duration.ofDays(365)));
+        CurrentUser.set(1L);
+        assertThat(users.getAll().get(2).getName(), equalTo("Delta"));
+    }
+
+    @Test
+    void writeStoresMarkerForUser() {
+        LastWriteStore lastWrites = context.getBean(LastWriteStore.class);
+
+        CurrentUser.set(1L);
+        context.getBean(UserService.class).update(new UserDto(null, "Updated", null), 1L);
+
+        assertThat(lastWrites, instanceOf(InMemoryLastWriteStore.class));
+        assertThat(lastWrites.get(1L) != null, equalTo(true));
+        assertThat(lastWrites.get(2L) == null, equalTo(true));
+    }
+
+    @Test
+    void exposePoolMetricsForPrimaryAndReplica() {
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        context.getBean(UserService.class).getAll();
+
+        for (String pool : List.of("primary", "replica")) {
+            assertThat(registry.find("hikaricp.connections.active").tag("pool", pool).gauge() != null, equalTo(true));
+            assertThat(registry.find("hikaricp.connections.idle").tag("pool", pool).gauge() != null, equalTo(true));
+            assertThat(registry.find("hikaricp.connections.pending").tag("pool", pool).gauge() != null, equalTo(true));
+            assertThat(registry.find("hikaricp.connections.acquire").tag("pool", pool).timer() != null, equalTo(true));
+        }
+    }
+}
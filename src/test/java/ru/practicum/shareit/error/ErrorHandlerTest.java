@@ -0,0 +1,62 @@
+package ru.practicum.shareit.error;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.practicum.shareit.error.exception.BadRequestException;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.error.model.ErrorResponse;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class ErrorHandlerTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ErrorHandler handler = new ErrorHandler(
+            new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class),
+            2,
+            100);
+
+    @Test
+    void domainExceptionsAreStackless() {
+        NotFoundException e = new NotFoundException("Пользователь по ID 134 не найден");
+
+        assertThat(e.getStackTrace().length, equalTo(0));
+        assertThat(e.getMessage(), equalTo("Пользователь по ID 134 не найден"));
+    }
+
+    @Test
+    void countErrorsByType() {
+        ErrorResponse response = handler.handleNotFound(new NotFoundException("Вещь по ID 134 не найдена!"));
+        handler.handleNotFound(new NotFoundException("Вещь по ID 135 не найдена!"));
+        handler.handleBadRequest(new BadRequestException("Unknown state: UNSUPPORTED_STATUS"));
+
+        assertThat(response.getError(), equalTo("Вещь по ID 134 не найдена!"));
+        assertThat(registry.get("shareit.errors")
+                .tag("exception", "NotFoundException")
+                .tag("status", "404")
+                .counter()
+                .count(), equalTo(2.0));
+        assertThat(registry.get("shareit.errors")
+                .tag("exception", "BadRequestException")
+                .tag("status", "400")
+                .counter()
+                .count(), equalTo(1.0));
+    }
+
+    @Test
+    void limitLogMessagesPerSecond() throws InterruptedException {
+        ErrorLogLimiter limiter = new ErrorLogLimiter(2);
+
+        assertThat(limiter.tryAcquire(), equalTo(0L));
+        assertThat(limiter.tryAcquire(), equalTo(0L));
+        assertThat(limiter.tryAcquire(), equalTo(-1L));
+        assertThat(limiter.tryAcquire(), equalTo(-1L));
+        Thread.sleep(1100);
+        assertThat(limiter.tryAcquire(), equalTo(2L));
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.error;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.error.model.ErrorResponse;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorPathBenchmark.class);
+
+    private final ErrorHandler handler = new ErrorHandler(
+            new StaticListableBeanFactory(Map.<String, Object>of("registry", new SimpleMeterRegistry()))
+                    .getBeanProvider(MeterRegistry.class),
+            10,
+            100);
+    private long userId = 134;
+
+    @Benchmark
+    public ErrorResponse before() {
+        try {
+            throw new LegacyNotFoundException("Пользователь по ID " + userId++ + " не найден");
+        } catch (LegacyNotFoundException e) {
+            log.error("Not found exception", e);
+            return new ErrorResponse(e.getMessage(), "Not found exception");
+        }
+    }
+
+    @Benchmark
+    public ErrorResponse after() {
+        try {
+            throw new NotFoundException("Пользователь по ID " + userId++ + " не найден");
+        } catch (NotFoundException e) {
+            return handler.handleNotFound(e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ErrorPathBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    private static class LegacyNotFoundException extends RuntimeException {
+
+        LegacyNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
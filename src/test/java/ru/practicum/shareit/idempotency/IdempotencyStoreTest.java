@@ -0,0 +1,189 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.dto.BookingDtoOutcome;
+import ru.practicum.shareit.error.exception.BadRequestException;
+import ru.practicum.shareit.error.exception.ConflictException;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.idempotency.repository.IdempotencyRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.practicum.shareit.booking.model.Status.WAITING;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store;
+    private final IdempotencyRepository repository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper mapper;
+    private final EntityManager entityManager;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final String key = UUID.randomUUID().toString();
+
+    @Test
+    void retryReturnsStoredResponse() {
+        String first = store.execute(key, "items", 1L, "request", String.class, this::call);
+        String second = store.execute(key, "items", 1L, "request", String.class, this::call);
+
+        assertThat(first, equalTo("response-1"));
+        assertThat(second, equalTo("response-1"));
+        assertThat(calls.get(), equalTo(1));
+    }
+
+    @Test
+    void retryOnAnotherNodeReturnsStoredResponse() {
+        IdempotencyStore otherNode = new IdempotencyStore(new IdempotencyProperties(),
+                repository,
+                transactionManager,
+                mapper);
+
+        store.execute(key, "items", 1L, "request", String.class, this::call);
+
+        assertThat(otherNode.execute(key, "items", 1L, "request", String.class, this::call),
+                equalTo("response-1"));
+        assertThat(calls.get(), equalTo(1));
+    }
+
+    @Test
+    void storedResponseKeepsType() {
+        BookingDtoOutcome booking = new BookingDtoOutcome(7L,
+                LocalDateTime.of(2035, 1, 1, 1, 1, 1),
+                LocalDateTime.of(2035, 1, 2, 1, 1, 1),
+                new Item(1L, "Пила", "Острая", true, 1L, null, 2L, 3L),
+                new User(2L, "Beta", "beta@yandex.ru", 4L),
+                WAITING);
+
+        store.execute(key, "bookings", 1L, "request", BookingDtoOutcome.class, () -> booking);
+        BookingDtoOutcome stored = store.execute(key, "bookings", 1L, "request", BookingDtoOutcome.class,
+                () -> null);
+
+        assertThat(stored.getId(), equalTo(7L));
+        assertThat(stored.getStart(), equalTo(booking.getStart()));
+        assertThat(stored.getItem().getName(), equalTo("Пила"));
+        assertThat(stored.getBooker().getEmail(), equalTo("beta@yandex.ru"));
+        assertThat(stored.getStatus(), equalTo(WAITING));
+    }
+
+    @Test
+    void responseIsStoredWhenActionClearsPersistenceContext() {
+        store.execute(key, "items", 1L, "request", String.class, () -> {
+            entityManager.clear();
+            return call();
+        });
+
+        assertThat(store.execute(key, "items", 1L, "request", String.class, this::call), equalTo("response-1"));
+    }
+
+    @Test
+    void keysAreScopedByUserAndEndpoint() {
+        store.execute(key, "items", 1L, "request", String.class, this::call);
+        store.execute(key, "items", 2L, "request", String.class, this::call);
+        store.execute(key, "bookings", 1L, "request", String.class, this::call);
+        store.execute(null, "items", 1L, "request", String.class, this::call);
+
+        assertThat(calls.get(), equalTo(4));
+    }
+
+    @Test
+    void reusedKeyWithOtherRequestFails() {
+        store.execute(key, "items", 1L, "request", String.class, this::call);
+
+        ConflictException e = assertThrows(ConflictException.class,
+                () -> store.execute(key, "items", 1L, "other", String.class, this::call));
+
+        assertThat(e.getMessage(), equalTo("Idempotency-Key " + key + " уже использован для другого запроса"));
+    }
+
+    @Test
+    void failedRequestIsNotStored() {
+        assertThrows(NotFoundException.class, () -> store.execute(key, "items", 1L, "request", String.class,
+                () -> {
+                    throw new NotFoundException("Вещь не найдена!");
+                }));
+
+        assertThat(store.execute(key, "items", 1L, "request", String.class, this::call), equalTo("response-1"));
+    }
+
+    @Test
+    void expiredKeyRunsAgain() throws InterruptedException {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setExpireAfterWrite(Duration.ZERO);
+        IdempotencyStore expiring = new IdempotencyStore(properties, repository, transactionManager, mapper);
+
+        expiring.execute(key, "items", 1L, "request", String.class, this::call);
+        Thread.sleep(10);
+
+        assertThat(expiring.execute(key, "items", 1L, "request", String.class, this::call),
+                equalTo("response-2"));
+    }
+
+    @Test
+    void wrongKeyFails() {
+        assertThrows(BadRequestException.class,
+                () -> store.execute(" ", "items", 1L, "request", String.class, this::call));
+        assertThrows(BadRequestException.class,
+                () -> store.execute("k".repeat(256), "items", 1L, "request", String.class, this::call));
+    }
+
+    @Test
+    void concurrentRetriesRunOnce() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                go.await();
+                return store.execute(key, "items", 1L, "request", String.class, () -> {
+                    sleep();
+                    return call();
+                });
+            }));
+        }
+        go.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS), equalTo("response-1"));
+        }
+        executor.shutdown();
+        assertThat(calls.get(), equalTo(1));
+    }
+
+    private String call() {
+        return "response-" + calls.incrementAndGet();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
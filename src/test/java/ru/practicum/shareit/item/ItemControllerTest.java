@@ -1,20 +1,31 @@
 package ru.practicum.shareit.item;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.error.exception.BadRequestException;
 import ru.practicum.shareit.error.exception.ConflictException;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserIndex;
 
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.Matchers.is;
@@ -22,6 +33,7 @@ import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -35,6 +47,12 @@ class ItemControllerTest {
     @MockBean
     ItemService service;
 
+    @MockBean
+    UserIndex userIndex;
+
+    @MockBean
+    IdempotencyStore idempotency;
+
     @Autowired
     private MockMvc mvc;
 
@@ -50,6 +68,7 @@ class ItemControllerTest {
             20L,
             null,
             null,
+            null,
             null);
     private final ItemDto dto2 = new ItemDto(3L,
             "name3",
@@ -58,13 +77,20 @@ class ItemControllerTest {
             30L,
             null,
             null,
+            null,
             null);
     private final CommentDto commentDto = new CommentDto(4L, "text", "author", null);
 
 
+    @BeforeEach
+    void passThroughIdempotency() {
+        when(idempotency.execute(any(), any(), anyLong(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(5).get());
+    }
+
     @Test
     void getItemsWithStatusOk() throws Exception {
-        when(service.getAll(anyLong(), anyInt(), anyInt()))
+        when(service.getAll(anyLong(), anyInt(), anyInt(), any()))
                 .thenReturn(List.of(dto1, dto2));
 
         mvc.perform(get("/items?from=2&size=2")
@@ -74,7 +100,7 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].description", is(dto1.getDescription())))
                 .andExpect(jsonPath("$[1].description", is(dto2.getDescription())));
 
-        verify(service, times(1)).getAll(1L, 2, 2);
+        verify(service, times(1)).getAll(1L, 2, 2, EnumSet.allOf(ItemInclude.class));
     }
 
     @Test
@@ -101,7 +127,7 @@ class ItemControllerTest {
 
     @Test
     void getByIdWithStatusOk() throws Exception {
-        when(service.getById(anyLong(), anyLong())).thenReturn(dto1);
+        when(service.getById(anyLong(), anyLong(), any())).thenReturn(dto1);
 
         mvc.perform(get("/items/2")
                         .header("X-Sharer-User-Id", 1L))
@@ -109,12 +135,41 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.id", is(dto1.getId()), Long.class))
                 .andExpect(jsonPath("$.description", is(dto1.getDescription())));
 
-        verify(service, times(1)).getById(2L, 1L);
+        verify(service, times(1)).getById(2L, 1L, EnumSet.allOf(ItemInclude.class));
+    }
+
+    @Test
+    void getByIdWithMatchingETagWithStatusNotModified() throws Exception {
+        when(service.getETag(anyLong(), anyLong())).thenReturn("\"v1\"");
+
+        mvc.perform(get("/items/2")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v1\""));
+
+        verify(service, times(1)).getETag(2L, 1L);
+        verify(service, never()).getById(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void getByIdWithStaleETagWithStatusOk() throws Exception {
+        when(service.getETag(anyLong(), anyLong())).thenReturn("\"v2\"");
+        when(service.getById(anyLong(), anyLong(), any())).thenReturn(dto1);
+
+        mvc.perform(get("/items/2")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"v1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v2\""))
+                .andExpect(jsonPath("$.id", is(dto1.getId()), Long.class));
+
+        verify(service, times(1)).getById(2L, 1L, EnumSet.allOf(ItemInclude.class));
     }
 
     @Test
     void getByIdWithWrongIdWithStatusNotFound() throws Exception {
-        when(service.getById(anyLong(), anyLong()))
+        when(service.getById(anyLong(), anyLong(), any()))
                 .thenThrow(new NotFoundException("Вещь 28 не найдена!"));
 
         mvc.perform(get("/items/28")
@@ -123,7 +178,7 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.error", is("Вещь 28 не найдена!")))
                 .andExpect(jsonPath("$.description", is("Not found exception")));
 
-        verify(service, times(1)).getById(28L, 82L);
+        verify(service, times(1)).getById(28L, 82L, EnumSet.allOf(ItemInclude.class));
     }
 
     @Test
@@ -139,6 +194,21 @@ class ItemControllerTest {
         verify(service, times(1)).search("Поиск", 2, 2);
     }
 
+    @Test
+    void searchFreeItemWithStatusOk() throws Exception {
+        when(service.search(anyString(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(dtoShort));
+
+        mvc.perform(get("/items/search?text=Поиск&start=2030-01-01T00:00:00&end=2030-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].description", is(dtoShort.getDescription())));
+
+        verify(service, times(1)).search("Поиск",
+                LocalDateTime.of(2030, 1, 1, 0, 0), LocalDateTime.of(2030, 1, 2, 0, 0), 0, 100);
+        verify(service, never()).search(anyString(), anyInt(), anyInt());
+    }
+
     @Test
     void searchItemWithWrongFromWithStatusBadRequest() throws Exception {
         mvc.perform(get("/items/search?text=Поиск&from=-2&size=2"))
@@ -230,6 +300,7 @@ class ItemControllerTest {
                 2L,
                 null,
                 null,
+                null,
                 null);
 
         mvc.perform(post("/items")
@@ -254,6 +325,7 @@ class ItemControllerTest {
                 2L,
                 null,
                 null,
+                null,
                 null);
 
         mvc.perform(post("/items")
@@ -278,6 +350,7 @@ class ItemControllerTest {
                 2L,
                 null,
                 null,
+                null,
                 null);
 
         mvc.perform(post("/items")
@@ -330,6 +403,22 @@ class ItemControllerTest {
         verify(service, times(1)).update(dto1, 1L);
     }
 
+    @Test
+    void updateItemConcurrentlyWithStatusConflict() throws Exception {
+        when(service.update(any(), anyLong()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 2L));
+
+        mvc.perform(patch("/items/2")
+                        .content(mapper.writeValueAsString(dto1))
+                        .characterEncoding(UTF_8)
+                        .contentType(APPLICATION_JSON)
+                        .accept(APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Данные изменились во время запроса, повторите его")))
+                .andExpect(jsonPath("$.description", is("Conflict Exception")));
+    }
+
     @Test
     void deleteItemWithStatusOk() throws Exception {
         mvc.perform(delete("/items/1")
@@ -422,4 +511,137 @@ class ItemControllerTest {
 
         verify(service, times(1)).addComment(commentDto, 2L, 1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getByIdWithIncludeWithStatusOk() throws Exception {
+        when(service.getById(anyLong(), anyLong(), any())).thenReturn(dto1);
+
+        mvc.perform(get("/items/2?include=comments")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk());
+
+        verify(service, times(1)).getById(2L, 1L, EnumSet.of(ItemInclude.COMMENTS));
+    }
+
+    @Test
+    void getAvailabilityWithStatusOk() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 2, 0, 0);
+        when(service.getAvailability(anyLong(), any(), any()))
+                .thenReturn(List.of(new FreeSlotDto(from, to)));
+
+        mvc.perform(get("/items/2/availability?from=2030-01-01T00:00:00&to=2030-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].start", is("2030-01-01T00:00:00")))
+                .andExpect(jsonPath("$[0].end", is("2030-01-02T00:00:00")));
+
+        verify(service, times(1)).getAvailability(2L, from, to);
+    }
+
+    @Test
+    void getItemsByIdsWithStatusOk() throws Exception {
+        when(service.getByIds(anyList(), anyLong(), any())).thenReturn(List.of(dto1));
+
+        mvc.perform(get("/items?ids=2")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(dto1.getId()), Long.class));
+
+        verify(service, times(1)).getByIds(List.of(2L), 1L, EnumSet.allOf(ItemInclude.class));
+        verify(service, never()).getAll(anyLong(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void getItemsByTooManyIdsWithStatusBadRequest() throws Exception {
+        String ids = LongStream.rangeClosed(1, 101)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        mvc.perform(get("/items?ids=" + ids)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void getItemsWithNoIncludesWithStatusOk() throws Exception {
+        when(service.getAllShort(anyLong(), anyInt(), anyInt())).thenReturn(List.of(dtoShort));
+
+        mvc.perform(get("/items?include=none")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(dtoShort.getName())))
+                .andExpect(jsonPath("$[0].comments").doesNotExist());
+
+        verify(service, times(1)).getAllShort(1L, 0, 100);
+        verify(service, never()).getAll(anyLong(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void getByIdWithNoIncludesWithStatusOk() throws Exception {
+        when(service.getShortById(anyLong())).thenReturn(dtoShort);
+
+        mvc.perform(get("/items/1?include=none")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is(dtoShort.getName())))
+                .andExpect(jsonPath("$.lastBooking").doesNotExist());
+
+        verify(service, times(1)).getShortById(1L);
+        verify(service, never()).getById(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void getByIdWithUnknownIncludeWithStatusBadRequest() throws Exception {
+        mvc.perform(get("/items/2?include=owner")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Unknown include: owner")));
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void getCommentsWithStatusOk() throws Exception {
+        when(service.getComments(anyLong(), any(), any(), anyInt())).thenReturn(List.of(commentDto));
+
+        mvc.perform(get("/items/2/comments?beforeCreated=2022-11-16T07:07:07&beforeId=2&size=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].text", is(commentDto.getText())));
+
+        verify(service, times(1)).getComments(2L, LocalDateTime.of(2022, 11, 16, 7, 7, 7), 2L, 5);
+    }
+
+    @Test
+    void getCommentsWithWrongSizeWithStatusBadRequest() throws Exception {
+        mvc.perform(get("/items/2/comments?size=500"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void getItemsForUnknownUserWithStatusNotFound() throws Exception {
+        doThrow(new NotFoundException("Пользователь по ID 99 не найден")).when(userIndex).require(99L);
+
+        mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 99L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", is("Пользователь по ID 99 не найден")));
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void getItemsWithWrongUserHeaderWithStatusBadRequest() throws Exception {
+        mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Некорректный X-Sharer-User-Id: abc")));
+
+        verifyNoInteractions(service, userIndex);
+    }
+}
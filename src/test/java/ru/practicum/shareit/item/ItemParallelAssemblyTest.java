@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.misc.FanOut;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@TestPropertySource(properties = "shareit.fan-out.enabled=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemParallelAssemblyTest {
+
+    private final ItemService service;
+    private final FanOut fanOut;
+
+    @Test
+    void getByIdMatchesGetAll() {
+        assertThat(fanOut.isEnabled(), equalTo(true));
+
+        List<ItemDto> items = service.getAll(1L, 0, 10);
+
+        for (ItemDto item : items) {
+            assertThat(service.getById(item.getId(), 1L), equalTo(item));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemReadCoalescingTest {
+
+    private static final int THREADS = 16;
+
+    private final ItemService service;
+    private final MeterRegistry registry;
+
+    @SpyBean
+    private BookingService bookingService;
+
+    @Test
+    void ownerAndGuestGetTheirOwnViews() throws Exception {
+        double executedBefore = count("executed");
+        double coalescedBefore = count("coalesced");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(bookingService).getLastBookingForItem(1L);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<ItemDto>> results = new ArrayList<>();
+        results.add(executor.submit(() -> service.getById(1L, 1L)));
+        assertThat(loading.await(5, TimeUnit.SECONDS), equalTo(true));
+        for (int i = 1; i < THREADS; i++) {
+            long userId = i % 2 == 0 ? 1L : 2L;
+            results.add(executor.submit(() -> service.getById(1L, userId)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") - coalescedBefore < THREADS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (int i = 0; i < THREADS; i++) {
+            ItemDto item = results.get(i).get(5, TimeUnit.SECONDS);
+            assertThat(item.getId(), equalTo(1L));
+            assertThat(item.getComments(), notNullValue());
+            if (i % 2 == 0) {
+                assertThat(item.getLastBooking(), notNullValue());
+            } else {
+                assertThat(item.getLastBooking(), nullValue());
+                assertThat(item.getNextBooking(), nullValue());
+            }
+        }
+        executor.shutdown();
+
+        assertThat(count("executed") - executedBefore, equalTo(1.0));
+        assertThat(count("coalesced") - coalescedBefore, equalTo((double) THREADS - 1));
+    }
+
+    private double count(String result) {
+        Counter counter = registry.find("shareit.single.flight").tags("name", "items", "result", result).counter();
+
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -6,17 +6,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDtoIncome;
 import ru.practicum.shareit.error.exception.BadRequestException;
 import ru.practicum.shareit.error.exception.ConflictException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.logging.SqlStatementCounter;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -31,6 +37,7 @@ class ItemServiceIntegrationTest {
 
     private final EntityManager em;
     private final ItemService service;
+    private final BookingService bookingService;
     private final ItemDto item = new ItemDto(null,
             "Кувалда",
             "Огромная!",
@@ -38,6 +45,7 @@ class ItemServiceIntegrationTest {
             null,
             null,
             null,
+            null,
             null);
     private final CommentDto comment = new CommentDto(null,
             "Отказали!",
@@ -71,6 +79,53 @@ class ItemServiceIntegrationTest {
         assertThat(item.getComments().get(0).getText(), equalTo("Понравилось!"));
     }
 
+    @Test
+    void getByIdWithLatestCommentsFirst() {
+        ItemDto item = service.getById(1L, 2L);
+
+        assertThat(item.getCommentCount(), equalTo(2L));
+        assertThat(item.getComments().size(), equalTo(2));
+        assertThat(item.getComments().get(0).getText(), equalTo("Неее!"));
+        assertThat(item.getComments().get(0).getAuthorName(), equalTo("Delta"));
+    }
+
+    @Test
+    void getByIdWithoutIncludes() {
+        ItemDto item = service.getById(1L, 1L, EnumSet.noneOf(ItemInclude.class));
+
+        assertThat(item.getName(), equalTo("Пила"));
+        assertThat(item.getCommentCount(), equalTo(2L));
+        assertThat(item.getComments(), nullValue());
+        assertThat(item.getLastBooking(), nullValue());
+    }
+
+    @Test
+    void getComments() {
+        List<CommentDto> first = service.getComments(1L, null, null, 1);
+        List<CommentDto> second = service.getComments(1L, first.get(0).getCreated(), first.get(0).getId(), 1);
+        List<CommentDto> last = service.getComments(1L, second.get(0).getCreated(), second.get(0).getId(), 1);
+
+        assertThat(first.get(0).getText(), equalTo("Неее!"));
+        assertThat(second.get(0).getText(), equalTo("Класс!"));
+        assertThat(last.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    void getCommentsFailWrongCursor() {
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> service.getComments(1L, null, 2L, 10));
+
+        assertThat(e.getMessage(), equalTo("Параметры beforeCreated и beforeId задаются вместе"));
+    }
+
+    @Test
+    void getCommentsFailWrongItem() {
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> service.getComments(94L, null, null, 10));
+
+        assertThat(e.getMessage(), equalTo("Вещь 94 не найдена!"));
+    }
+
     @Test
     void getByIdFail() {
         NotFoundException e = assertThrows(NotFoundException.class,
@@ -78,6 +133,72 @@ class ItemServiceIntegrationTest {
         assertThat(e.getMessage(), equalTo("Вещь 94 не найдена!"));
     }
 
+    @Test
+    void getETag() {
+        String ownerTag = service.getETag(1L, 1L);
+        String guestTag = service.getETag(1L, 2L);
+
+        assertThat(ownerTag, notNullValue());
+        assertThat(ownerTag, equalTo(service.getETag(1L, 1L)));
+        assertThat(guestTag, not(equalTo(ownerTag)));
+        assertThat(service.getETag(94L, 1L), nullValue());
+    }
+
+    @Test
+    void getETagChangesAfterUpdate() {
+        String before = service.getETag(1L, 1L);
+        item.setId(1L);
+
+        service.update(item, 1L);
+
+        assertThat(service.getETag(1L, 1L), not(equalTo(before)));
+    }
+
+    @Test
+    void getETagChangesAfterComment() {
+        String owner = service.getETag(1L, 1L);
+        String guest = service.getETag(1L, 2L);
+
+        service.addComment(comment, 1L, 2L);
+
+        assertThat(service.getETag(1L, 1L), not(equalTo(owner)));
+        assertThat(service.getETag(1L, 2L), not(equalTo(guest)));
+    }
+
+    @Test
+    void getETagChangesAfterBooking() {
+        String before = service.getETag(1L, 1L);
+
+        bookingService.add(new BookingDtoIncome(LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
+                1L), 2L);
+
+        assertThat(service.getETag(1L, 1L), not(equalTo(before)));
+    }
+
+    @Test
+    void getETagChangesWhenNextBookingStarts() throws InterruptedException {
+        bookingService.add(new BookingDtoIncome(LocalDateTime.now().plusSeconds(1),
+                LocalDateTime.now().plusDays(1),
+                1L), 2L);
+        String before = service.getETag(1L, 1L);
+        String guest = service.getETag(1L, 2L);
+
+        Thread.sleep(1100);
+
+        assertThat(service.getETag(1L, 1L), not(equalTo(before)));
+        assertThat(service.getETag(1L, 2L), equalTo(guest));
+    }
+
+    @Test
+    void getETagReadsSingleRow() {
+        SqlStatementCounter.reset();
+
+        service.getETag(1L, 1L);
+
+        assertThat(SqlStatementCounter.get(), equalTo(1));
+    }
+
     @Test
     void getAll() {
         List<ItemDto> items = service.getAll(1L, 0, 2);
@@ -93,6 +214,105 @@ class ItemServiceIntegrationTest {
         assertThat(items.get(0).getName(), equalTo("Дрель"));
     }
 
+    @Test
+    void getAllMatchesGetById() {
+        List<ItemDto> items = service.getAll(1L, 0, 10);
+
+        assertThat(items.size(), equalTo(2));
+        for (ItemDto item : items) {
+            assertThat(item, equalTo(service.getById(item.getId(), 1L)));
+        }
+    }
+
+    @Test
+    void getAvailability() {
+        LocalDateTime from = LocalDateTime.of(2022, 11, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2022, 12, 1, 0, 0);
+
+        List<FreeSlotDto> slots = service.getAvailability(1L, from, to);
+
+        assertThat(slots, equalTo(List.of(
+                new FreeSlotDto(from, LocalDateTime.of(2022, 11, 13, 7, 7, 7)),
+                new FreeSlotDto(LocalDateTime.of(2022, 11, 15, 7, 7, 7), to))));
+    }
+
+    @Test
+    void getAvailabilityStartsAfterBookingInProgress() {
+        LocalDateTime to = LocalDateTime.of(2021, 11, 20, 0, 0);
+
+        List<FreeSlotDto> slots = service.getAvailability(1L, LocalDateTime.of(2021, 11, 11, 0, 0), to);
+
+        assertThat(slots, equalTo(List.of(new FreeSlotDto(LocalDateTime.of(2021, 11, 12, 7, 7, 7), to))));
+    }
+
+    @Test
+    void getAvailabilityIgnoresRejectedBookings() {
+        LocalDateTime from = LocalDateTime.of(2023, 11, 25, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 11, 26, 0, 0);
+
+        assertThat(service.getAvailability(2L, from, to), equalTo(List.of(new FreeSlotDto(from, to))));
+        assertThat(service.getAvailability(5L, from, to).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    void getAvailabilityFail() {
+        LocalDateTime from = LocalDateTime.of(2023, 11, 25, 0, 0);
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> service.getAvailability(1L, from, from));
+        assertThat(e.getMessage(), equalTo("Начало периода должно быть раньше его конца"));
+        e = assertThrows(BadRequestException.class,
+                () -> service.getAvailability(1L, from, from.plusYears(2)));
+        assertThat(e.getMessage(), equalTo("Период не может быть длиннее 366 дней"));
+        NotFoundException notFound = assertThrows(NotFoundException.class,
+                () -> service.getAvailability(99L, from, from.plusDays(1)));
+        assertThat(notFound.getMessage(), equalTo("Вещь 99 не найдена!"));
+    }
+
+    @Test
+    void getByIdsMatchesGetById() {
+        List<ItemDto> items = service.getByIds(List.of(3L, 1L), 1L, EnumSet.allOf(ItemInclude.class));
+
+        assertThat(items.size(), equalTo(2));
+        assertThat(items.get(0), equalTo(service.getById(3L, 1L)));
+        assertThat(items.get(1), equalTo(service.getById(1L, 1L)));
+        assertThat(items.get(0).getLastBooking(), nullValue());
+    }
+
+    @Test
+    void getByIdsFail() {
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> service.getShortByIds(List.of(1L, 99L)));
+
+        assertThat(e.getMessage(), equalTo("Вещь 99 не найдена!"));
+    }
+
+    @Test
+    void getAllQueriesDoNotDependOnPageSize() {
+        SqlStatementCounter.reset();
+        service.getAll(1L, 0, 1);
+        int oneItem = SqlStatementCounter.get();
+        em.clear();
+        SqlStatementCounter.reset();
+        service.getAll(1L, 0, 2);
+
+        assertThat(SqlStatementCounter.get(), equalTo(oneItem));
+    }
+
+    @Test
+    void getAllShort() {
+        List<ItemDtoShort> items = service.getAllShort(1L, 0, 2);
+
+        assertThat(items.size(), equalTo(2));
+        assertThat(items.get(1).getName(), equalTo("Молоток"));
+    }
+
+    @Test
+    void getShortById() {
+        assertThat(service.getShortById(3L).getRequestId(), equalTo(1L));
+        assertThrows(NotFoundException.class, () -> service.getShortById(94L));
+    }
+
     @Test
     void add() {
         service.add(item, 1L);
@@ -201,6 +421,15 @@ class ItemServiceIntegrationTest {
         assertThat(items.size(), equalTo(1));
     }
 
+    @Test
+    void deleteUsesOneStatement() {
+        SqlStatementCounter.reset();
+
+        service.delete(2L, 1L);
+
+        assertThat(SqlStatementCounter.get(), equalTo(1));
+    }
+
     @Test
     void deleteFail() {
         ConflictException e = assertThrows(ConflictException.class, () -> service.delete(1L, 2L));
@@ -217,6 +446,36 @@ class ItemServiceIntegrationTest {
         assertThat(searched.get(1).getDescription(), equalTo("Молоток в комплекте"));
     }
 
+    @Test
+    void searchFree() {
+        List<ItemDtoShort> searched = service.search("МолОТ",
+                LocalDateTime.of(2023, 11, 25, 7, 30), LocalDateTime.of(2023, 11, 25, 7, 45), 0, 5);
+
+        assertThat(searched.size(), equalTo(2));
+        assertThat(service.search("пила",
+                LocalDateTime.of(2022, 11, 16, 0, 0), LocalDateTime.of(2022, 11, 17, 0, 0), 0, 5).size(), equalTo(1));
+    }
+
+    @Test
+    void searchFreeSkipsBookedItems() {
+        NotFoundException e = assertThrows(NotFoundException.class, () -> service.search("пила",
+                LocalDateTime.of(2022, 11, 14, 0, 0), LocalDateTime.of(2022, 11, 20, 0, 0), 0, 5));
+
+        assertThat(e.getMessage(), equalTo("Искомая вещь не найдена!"));
+    }
+
+    @Test
+    void searchFreeFail() {
+        LocalDateTime start = LocalDateTime.of(2022, 11, 14, 0, 0);
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> service.search("пила", start, null, 0, 5));
+        assertThat(e.getMessage(), equalTo("Параметры start и end задаются вместе"));
+        e = assertThrows(BadRequestException.class,
+                () -> service.search("пила", start, start, 0, 5));
+        assertThat(e.getMessage(), equalTo("Начало периода должно быть раньше его конца"));
+    }
+
     @Test
     void searchFail() {
         NotFoundException e = assertThrows(NotFoundException.class, () -> service.search("ббб", 2, 2));
@@ -236,6 +495,18 @@ class ItemServiceIntegrationTest {
         assertThat(checkedComment.getText(), equalTo("Отказали!"));
         assertThat(checkedComment.getAuthor().getId(), equalTo(2L));
         assertThat(checkedComment.getItem().getId(), equalTo(1L));
+        assertThat(checkedComment.getAuthorName(), equalTo("Beta"));
+    }
+
+    @Test
+    void addCommentIncrementsCount() {
+        CommentDto added = service.addComment(comment, 1L, 2L);
+        Long commentCount = em.createQuery("SELECT i.commentCount FROM Item i WHERE i.id = 1", Long.class)
+                .getSingleResult();
+
+        assertThat(added.getAuthorName(), equalTo("Beta"));
+        assertThat(commentCount, equalTo(3L));
+        assertThat(service.getComments(1L, null, null, 1).get(0).getText(), equalTo("Отказали!"));
     }
 
     @Test
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDtoIncome;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemUpdateConcurrencyTest {
+
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Test
+    void bookingBetweenReadAndWriteDoesNotFailUpdate() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                itemService.getShortById(1L);
+                try {
+                    executor.submit(() -> bookingService.add(new BookingDtoIncome(LocalDateTime.now().plusDays(1),
+                            LocalDateTime.now().plusDays(2),
+                            1L), 2L)).get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+                itemService.update(new ItemDto(1L, "Пила 2", null, null, null, null, null, null, null), 1L);
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(itemService.getShortById(1L).getName(), equalTo("Пила 2"));
+    }
+}
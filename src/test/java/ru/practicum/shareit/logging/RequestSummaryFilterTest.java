@@ -0,0 +1,76 @@
+package ru.practicum.shareit.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class RequestSummaryFilterTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("shareit.requests");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void attach() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detach() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void logSampledRequestSummary() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.addHeader("X-Sharer-User-Id", "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/{itemId}");
+            new SqlStatementCounter().inspect("select 1");
+            new SqlStatementCounter().inspect("select 2");
+        };
+
+        new RequestSummaryFilter(1.0, 500).doFilter(request, response, chain);
+
+        assertThat(appender.list.size(), equalTo(1));
+        String line = appender.list.get(0).getFormattedMessage();
+        assertThat(line.startsWith("route=\"GET /items/{itemId}\" user=1 status=200 latencyMs="), equalTo(true));
+        assertThat(line.contains(" sql=2 connections=0 connectionMs=0"), equalTo(true));
+    }
+
+    @Test
+    void skipNotSampledRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+
+        new RequestSummaryFilter(0.0, 500).doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+        });
+
+        assertThat(appender.list.size(), equalTo(0));
+    }
+
+    @Test
+    void alwaysLogServerErrors() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new RequestSummaryFilter(0.0, 500).doFilter(request, response, (req, res) -> response.setStatus(500));
+
+        assertThat(appender.list.size(), equalTo(1));
+        assertThat(appender.list.get(0).getFormattedMessage().contains("status=500"), equalTo(true));
+    }
+}
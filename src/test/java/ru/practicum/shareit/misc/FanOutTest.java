@@ -0,0 +1,110 @@
+package ru.practicum.shareit.misc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.error.exception.NotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class FanOutTest {
+
+    private FanOut fanOut = fanOut(Duration.ofSeconds(5));
+
+    @AfterEach
+    void shutdown() {
+        fanOut.shutdown();
+    }
+
+    @Test
+    void lookupsRunConcurrently() {
+        CountDownLatch started = new CountDownLatch(3);
+        FanOut.Batch batch = fanOut.start();
+        Future<Integer> first = batch.submit(() -> meet(started, 1));
+        Future<Integer> second = batch.submit(() -> meet(started, 2));
+        Future<Integer> third = batch.submit(() -> meet(started, 3));
+
+        batch.join();
+
+        assertThat(batch.get(first) + batch.get(second) + batch.get(third), equalTo(6));
+    }
+
+    @Test
+    void failureCancelsOtherLookups() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        FanOut.Batch batch = fanOut.start();
+        batch.submit(() -> {
+            started.countDown();
+            return block(interrupted);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        batch.submit(() -> {
+            throw new NotFoundException("Вещь 1 не найдена!");
+        });
+
+        assertThrows(NotFoundException.class, batch::join);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS), equalTo(true));
+    }
+
+    @Test
+    void deadlineCancelsSlowLookups() throws InterruptedException {
+        fanOut.shutdown();
+        fanOut = fanOut(Duration.ofMillis(100));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        FanOut.Batch batch = fanOut.start();
+        batch.submit(() -> block(interrupted));
+
+        assertThrows(QueryTimeoutException.class, batch::join);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS), equalTo(true));
+    }
+
+    @Test
+    void disabledByDefault() {
+        FanOut disabled = new FanOut(new FanOutProperties(), mock(PlatformTransactionManager.class));
+
+        assertThat(disabled.isEnabled(), equalTo(false));
+        assertThrows(IllegalStateException.class, disabled::start);
+    }
+
+    private static FanOut fanOut(Duration timeout) {
+        FanOutProperties properties = new FanOutProperties();
+        properties.setEnabled(true);
+        properties.setThreads(3);
+        properties.setTimeout(timeout);
+
+        return new FanOut(properties, mock(PlatformTransactionManager.class));
+    }
+
+    private static int meet(CountDownLatch started, int value) {
+        started.countDown();
+        try {
+            if (!started.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Выборки выполняются последовательно");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return value;
+    }
+
+    private static Object block(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+
+        return null;
+    }
+}
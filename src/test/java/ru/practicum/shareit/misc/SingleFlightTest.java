@@ -0,0 +1,92 @@
+package ru.practicum.shareit.misc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.error.exception.NotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private static final int THREADS = 8;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(registry);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("items", 1L, () -> {
+            loading.countDown();
+            await(release);
+            return calls.incrementAndGet();
+        })));
+        loading.await();
+        for (int i = 1; i < THREADS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("items", 1L, calls::incrementAndGet)));
+        }
+        while (count("coalesced") < THREADS - 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS), equalTo(1));
+        }
+        executor.shutdown();
+        assertThat(calls.get(), equalTo(1));
+        assertThat(count("executed"), equalTo(1.0));
+        assertThat(count("coalesced"), equalTo(THREADS - 1.0));
+    }
+
+    @Test
+    void sequentialCallsLoadAgain() {
+        singleFlight.execute("items", 1L, calls::incrementAndGet);
+        singleFlight.execute("items", 1L, calls::incrementAndGet);
+        singleFlight.execute("items", 2L, calls::incrementAndGet);
+        singleFlight.execute("users", 1L, calls::incrementAndGet);
+
+        assertThat(calls.get(), equalTo(4));
+        assertThat(count("coalesced"), equalTo(0.0));
+    }
+
+    @Test
+    void failureIsNotRemembered() {
+        assertThrows(NotFoundException.class, () -> singleFlight.execute("items", 1L, () -> {
+            throw new NotFoundException("Вещь 1 не найдена!");
+        }));
+
+        assertThat(singleFlight.execute("items", 1L, calls::incrementAndGet), equalTo(1));
+    }
+
+    private double count(String result) {
+        return registry.get("shareit.single.flight")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
@@ -8,12 +9,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoFull;
+import ru.practicum.shareit.user.UserIndex;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.Matchers.is;
@@ -22,6 +26,7 @@ import static org.mockito.Mockito.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -35,6 +40,12 @@ class ItemRequestControllerTest {
     @MockBean
     ItemRequestService service;
 
+    @MockBean
+    UserIndex userIndex;
+
+    @MockBean
+    IdempotencyStore idempotency;
+
     @Autowired
     private MockMvc mvc;
 
@@ -53,6 +64,12 @@ class ItemRequestControllerTest {
             timestamp3,
             List.of(item1, item2));
 
+    @BeforeEach
+    void passThroughIdempotency() {
+        when(idempotency.execute(any(), any(), anyLong(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(5).get());
+    }
+
     @Test
     void addRequestWithStatusOk() throws Exception {
         when(service.add(any(), anyLong()))
@@ -185,6 +202,19 @@ class ItemRequestControllerTest {
         verify(service, times(1)).getById(1L, 2L);
     }
 
+    @Test
+    void getByIdWithMatchingETagWithStatusNotModified() throws Exception {
+        when(service.getETag(1L, 2L)).thenReturn("\"v1\"");
+
+        mvc.perform(get("/requests/2")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v1\""));
+
+        verify(service, never()).getById(anyLong(), anyLong());
+    }
+
     @Test
     void getByIdWithStatusNotFound() throws Exception {
         when(service.getById(anyLong(), anyLong()))
@@ -17,6 +17,7 @@ import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
@@ -59,6 +60,15 @@ class ItemRequestServiceIntegrationTest {
         assertThat(fullRequest.getItems().get(0).getName(), equalTo("Отвертка"));
     }
 
+    @Test
+    void getETag() {
+        String tag = service.getETag(3L, 1L);
+
+        assertThat(tag, equalTo(service.getETag(2L, 1L)));
+        assertThat(service.getETag(456L, 1L), nullValue());
+        assertThat(service.getETag(3L, 117L), nullValue());
+    }
+
     @Test
     void getByIdFailWrongUser() {
         NotFoundException e = assertThrows(NotFoundException.class,
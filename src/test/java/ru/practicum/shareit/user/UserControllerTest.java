@@ -7,10 +7,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebM
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.Matchers.is;
@@ -18,7 +20,9 @@ import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
@@ -31,6 +35,9 @@ class UserControllerTest {
     @MockBean
     UserService service;
 
+    @MockBean
+    UserIndex userIndex;
+
     @Autowired
     private MockMvc mvc;
 
@@ -80,6 +87,66 @@ class UserControllerTest {
         verify(service, times(1)).getAll();
     }
 
+    @Test
+    void getUsersPage() throws Exception {
+        when(service.getPage(anyLong(), anyInt()))
+                .thenReturn(List.of(dto2));
+
+        mvc.perform(get("/users?afterId=1&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(dto2.getId()), Long.class));
+
+        verify(service, times(1)).getPage(1L, 1);
+        verify(service, never()).getAll();
+    }
+
+    @Test
+    void getUsersPageWithWrongSizeWithStatusBadRequest() throws Exception {
+        mvc.perform(get("/users?size=1001"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamUsers() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(dto1);
+            consumer.accept(dto2);
+            return null;
+        }).when(service).streamAll(any());
+
+        MvcResult result = mvc.perform(get("/users")
+                        .accept(UserController.NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(mapper.writeValueAsString(dto1) + "\n"
+                        + mapper.writeValueAsString(dto2) + "\n"));
+
+        verify(service, never()).getAll();
+    }
+
+    @Test
+    void getUsersByIds() throws Exception {
+        when(service.getByIds(anyList()))
+                .thenReturn(List.of(dto2, dto1));
+
+        mvc.perform(get("/users?ids=2,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(dto2.getId()), Long.class))
+                .andExpect(jsonPath("$[1].id", is(dto1.getId()), Long.class));
+
+        verify(service, times(1)).getByIds(List.of(2L, 1L));
+        verify(service, never()).getAll();
+    }
+
     @Test
     void createUserWithStatusOk() throws Exception {
         when(service.add(any())).thenReturn(dto1);
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.cache.InvalidationMessage;
+import ru.practicum.shareit.cache.InvalidationTransport;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.logging.SqlStatementCounter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UserIndexTest {
+
+    private final UserIndex userIndex;
+    private final InvalidationTransport transport;
+    private final TransactionTemplate transaction;
+
+    @Test
+    void knownUserIsCheckedWithoutQuery() {
+        assertThat(userIndex.exists(3L), equalTo(true));
+        SqlStatementCounter.reset();
+
+        userIndex.require(3L);
+
+        assertThat(SqlStatementCounter.get(), equalTo(0));
+    }
+
+    @Test
+    void unknownUserIsCheckedInDatabase() {
+        SqlStatementCounter.reset();
+
+        NotFoundException e = assertThrows(NotFoundException.class, () -> userIndex.require(99L));
+
+        assertThat(e.getMessage(), equalTo("Пользователь по ID 99 не найден"));
+        assertThat(SqlStatementCounter.get(), equalTo(1));
+        assertThat(userIndex.exists(99L), equalTo(false));
+    }
+
+    @Test
+    void removalDuringLookupIsNotOverwritten() {
+        transport.publish(new InvalidationMessage("other-node", "user-ids", "2"));
+
+        transaction.executeWithoutResult(status -> {
+            assertThat(userIndex.exists(2L), equalTo(true));
+            transport.publish(new InvalidationMessage("other-node", "user-ids", "2"));
+        });
+        SqlStatementCounter.reset();
+        userIndex.exists(2L);
+
+        assertThat(SqlStatementCounter.get(), equalTo(1));
+    }
+}
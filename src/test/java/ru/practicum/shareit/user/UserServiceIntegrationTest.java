@@ -7,15 +7,19 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.logging.SqlStatementCounter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
@@ -26,6 +30,7 @@ class UserServiceIntegrationTest {
 
     private final EntityManager em;
     private final UserService service;
+    private final ItemService itemService;
     private final UserDto dto = new UserDto(null, "Petr", "petr@yandex.ru");
 
     @Test
@@ -55,6 +60,35 @@ class UserServiceIntegrationTest {
         assertThat(user.getEmail(), equalTo("alfa@yandex.ru"));
     }
 
+    @Test
+    void updateNameRenamesCommentAuthor() {
+        service.update(new UserDto(null, "Gamma", null), 2L);
+
+        String authorName = em.createQuery("SELECT c.authorName FROM Comment c WHERE c.author.id = :id", String.class)
+                .setParameter("id", 2L)
+                .getSingleResult();
+
+        assertThat(authorName, equalTo("Gamma"));
+    }
+
+    @Test
+    void updateNameBumpsCommentVersionAndItemETag() {
+        String guestTag = itemService.getETag(1L, 2L);
+        Long commentVersion = em.createQuery("SELECT c.version FROM Comment c WHERE c.author.id = :id", Long.class)
+                .setParameter("id", 2L)
+                .getSingleResult();
+
+        service.update(new UserDto(null, "Gamma", null), 2L);
+        em.flush();
+        em.clear();
+
+        Long renamedVersion = em.createQuery("SELECT c.version FROM Comment c WHERE c.author.id = :id", Long.class)
+                .setParameter("id", 2L)
+                .getSingleResult();
+        assertThat(renamedVersion, equalTo(commentVersion + 1));
+        assertThat(itemService.getETag(1L, 2L), not(equalTo(guestTag)));
+    }
+
     @Test
     void updateEmail() {
         service.update(new UserDto(null, null, "gamma@yandex.ru"), 1L);
@@ -83,6 +117,61 @@ class UserServiceIntegrationTest {
         assertThat(dtoList.size(), equalTo(2));
     }
 
+    @Test
+    void deleteUsesOneStatement() {
+        SqlStatementCounter.reset();
+
+        service.delete(3L);
+
+        assertThat(SqlStatementCounter.get(), equalTo(1));
+    }
+
+    @Test
+    void getByIdsKeepsOrder() {
+        SqlStatementCounter.reset();
+
+        List<UserDto> users = service.getByIds(List.of(3L, 1L, 3L));
+
+        assertThat(SqlStatementCounter.get(), equalTo(1));
+        assertThat(users.size(), equalTo(2));
+        assertThat(users.get(0).getId(), equalTo(3L));
+        assertThat(users.get(1).getId(), equalTo(1L));
+    }
+
+    @Test
+    void getPage() {
+        List<UserDto> first = service.getPage(0L, 2);
+        List<UserDto> second = service.getPage(first.get(1).getId(), 2);
+
+        assertThat(first.size(), equalTo(2));
+        assertThat(first.get(0).getId(), equalTo(1L));
+        assertThat(second.size(), equalTo(1));
+        assertThat(second.get(0).getId(), equalTo(3L));
+    }
+
+    @Test
+    void streamAllMatchesGetAll() {
+        List<UserDto> users = new ArrayList<>();
+
+        service.streamAll(users::add);
+
+        assertThat(users, equalTo(service.getAll()));
+    }
+
+    @Test
+    void getByIdsFail() {
+        NotFoundException e = assertThrows(NotFoundException.class, () -> service.getByIds(List.of(1L, 99L)));
+
+        assertThat(e.getMessage(), equalTo("Пользователь по ID 99 не найден!"));
+    }
+
+    @Test
+    void deleteFail() {
+        NotFoundException e = assertThrows(NotFoundException.class, () -> service.delete(99L));
+
+        assertThat(e.getMessage(), equalTo("Пользователь по ID 99 не найден!"));
+    }
+
     @Test
     void getById() {
         UserDto user = service.getById(2L);
@@ -106,4 +195,13 @@ class UserServiceIntegrationTest {
         assertThat(dtoList.get(0).getName(), equalTo("Alfa"));
         assertThat(dtoList.get(2).getName(), equalTo("Delta"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void countSqlStatements() {
+        SqlStatementCounter.reset();
+
+        service.getAll();
+
+        assertThat(SqlStatementCounter.get(), equalTo(1));
+    }
+}
@@ -22,7 +22,13 @@ VALUES ('2021-11-10 07:07:07', '2021-11-12 07:07:07', 1, 2, 1),
        ('2022-11-13 07:07:07', '2022-11-15 07:07:07', 1, 3, 1),
        ('2023-11-25 07:07:07', '2023-11-25 08:07:07', 2, 2, 2);
 
-INSERT INTO COMMENTS (TEXT, AUTHOR_ID, ITEM_ID, CREATED)
-VALUES ('Класс!', 2, 1, '2022-11-13 07:07:07'),
-       ('Неее!', 3, 1, '2022-11-16 07:07:07'),
-       ('Понравилось!', 1, 3, '2022-11-17 07:07:07');
+INSERT INTO COMMENTS (TEXT, AUTHOR_ID, AUTHOR_NAME, ITEM_ID, CREATED)
+VALUES ('Класс!', 2, 'Beta', 1, '2022-11-13 07:07:07'),
+       ('Неее!', 3, 'Delta', 1, '2022-11-16 07:07:07'),
+       ('Понравилось!', 1, 'Alfa', 3, '2022-11-17 07:07:07');
+
+UPDATE BOOKINGS
+SET CHANGED_AT = '2022-11-01 07:07:07';
+
+UPDATE ITEMS
+SET COMMENT_COUNT = (SELECT COUNT(*) FROM COMMENTS WHERE COMMENTS.ITEM_ID = ITEMS.ID);